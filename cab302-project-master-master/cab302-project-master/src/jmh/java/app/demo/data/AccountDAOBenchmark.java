@@ -0,0 +1,33 @@
+package app.demo.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login checks against SQLite. build.gradle points db.url at a scratch file
+ * under build/ so this never touches contacts.db.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AccountDAOBenchmark {
+
+    private final AccountDAO dao = new AccountDAO();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AccountDAO.initialiseDatabase();
+        dao.register("bench", "hunter2");   // false on re-runs, which is fine
+    }
+
+    @Benchmark
+    public boolean confirmLoginHit() {
+        return dao.ConfrimLogin("bench", "hunter2");
+    }
+
+    @Benchmark
+    public boolean confirmLoginMiss() {
+        return dao.ConfrimLogin("nobody", "hunter2");
+    }
+}
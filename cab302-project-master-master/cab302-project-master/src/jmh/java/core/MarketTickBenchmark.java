@@ -0,0 +1,44 @@
+package core;
+
+import app.demo.Stock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** One full market tick at different market sizes, per kernel. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarketTickBenchmark {
+
+    @Param({"10", "10000", "1000000"})
+    public int stocks;
+
+    // "vector" needs --add-modules jdk.incubator.vector (added by build.gradle)
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private Market market;
+    private Random rng;
+    private ShardedTicker sharded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        market = new Market();
+        for (int i = 0; i < stocks; i++) market.add(new Stock("s" + i, 100.0));
+        market.book().setKernel(TickKernels.select(kernel));
+        rng = new Random(42);
+        sharded = new ShardedTicker(42);
+    }
+
+    @Benchmark
+    public void tickAll() {
+        market.tickAll(rng);
+    }
+
+    @Benchmark
+    public void tickAllSharded() {
+        market.tickAll(sharded);
+    }
+}
@@ -0,0 +1,41 @@
+package core;
+
+import app.demo.EventLibrary;
+import app.demo.Stock;
+import app.demo.Task;
+import events.EventEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Building the morning task list from the ui.Main market with some events live. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RandomTaskGeneratorBenchmark {
+
+    private Market market;
+    private EventEngine engine;
+    private final RandomTaskGenerator generator = new RandomTaskGenerator();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        market = new Market();
+        for (String code : List.of("wood", "iron", "coal", "steel", "meat", "paper")) {
+            market.add(new Stock(code, 100.0));
+        }
+        market.add(new Stock("gold", 1850.0));
+
+        // run a few headless days so the engine has live events to talk about
+        Simulation sim = new Simulation(market, EventLibrary.create(), new Random(7));
+        sim.run(Simulation.DEFAULT_DAY_MS / Simulation.DEFAULT_TICK_MS - 1);
+        engine = sim.engine();
+    }
+
+    @Benchmark
+    public List<Task> generate() {
+        return generator.generate(market, engine);
+    }
+}
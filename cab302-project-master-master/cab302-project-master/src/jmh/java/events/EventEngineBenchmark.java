@@ -0,0 +1,46 @@
+package events;
+
+import app.demo.Stock;
+import core.Market;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** One tryTrigger() with every gate open, over event pools of different sizes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventEngineBenchmark {
+
+    @Param({"100", "10000", "50000"})
+    public int eventDefs;
+
+    private static final int STOCKS = 1_000;
+
+    private EventEngine engine;
+    private long now;
+    private int calls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Market market = new Market();
+        for (int i = 0; i < STOCKS; i++) market.add(new Stock("s" + i, 100.0));
+
+        List<EventDef> defs = new ArrayList<>(eventDefs);
+        for (int i = 0; i < eventDefs; i++) {
+            defs.add(new EventDef("Event " + i, "s" + (i % STOCKS), (i & 1) == 0 ? 1.0 : -1.0, 30_000));
+        }
+
+        engine = new EventEngine(market, defs, new FixedChanceRandom(1), s -> {}, s -> {}, () -> {}, () -> now);
+    }
+
+    @Benchmark
+    public void tryTrigger() {
+        // jump past the global gap and per-stock cooldown every call
+        now += EventEngine.MIN_GAP_BETWEEN_TRIGGERS_MS + EventEngine.PER_STOCK_COOLDOWN_MS;
+        if (++calls % EventEngine.MAX_EVENTS_PER_DAY == 0) engine.resetDaily();
+        engine.tryTrigger();
+    }
+}
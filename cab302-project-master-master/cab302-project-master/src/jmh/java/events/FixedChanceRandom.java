@@ -0,0 +1,16 @@
+package events;
+
+import java.util.Random;
+
+/**
+ * Random that always passes EventEngine's CHANCE_PCT roll, so benchmarks
+ * measure event selection instead of the 80% early exit.
+ */
+final class FixedChanceRandom extends Random {
+    FixedChanceRandom(long seed) { super(seed); }
+
+    @Override
+    public int nextInt(int bound) {
+        return bound == 100 ? 0 : super.nextInt(bound);
+    }
+}
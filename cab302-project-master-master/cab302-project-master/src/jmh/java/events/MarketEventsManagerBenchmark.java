@@ -0,0 +1,30 @@
+package events;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Engine-to-manager change feed: one STARTED change mapped and published on the bus. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MarketEventsManagerBenchmark {
+
+    private MarketEventsManager manager;
+    private EventEngine.ActiveEvent active;
+    private long now;
+    private long seq;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new MarketEventsManager(new FixedChanceRandom(3), () -> now);
+        manager.nextDay();   // roll today's events without starting any timers
+        manager.subscribe(e -> {});
+        active = new EventEngine.ActiveEvent(new EventDef("Earnings Beat", "Strong results pre-market", "bhp", +4.0, 10_000), 10_000);
+    }
+
+    @Benchmark
+    public void onEngineChange() {
+        manager.onEngineChange(new EventChange(++seq, EventChange.Kind.STARTED, active, now));
+    }
+}
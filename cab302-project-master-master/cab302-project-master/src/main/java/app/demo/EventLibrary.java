@@ -1,57 +1,137 @@
 package app.demo;
 
+import core.Market;
 import events.EventDef;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-// Event library so we can easily make new events
+// Event library so we can easily make new events.
+// The events themselves live in a CSV file (events.csv in resources), so changing
+// the pool doesn't need a rebuild. See that file for the columns.
 public final class EventLibrary {
-    public static List<EventDef> create() {
-        List<EventDef> events = new ArrayList<>();
-
-        // the shiftPCT is the % per tick, so -1 shiftPCT will make a (-0.1 to 0.3) become (-1.1 to -0.7) for the duration
-        // If we want a new event, just copy paste an event and change the inputs
-        events.add(new EventDef(
-                "Iron demand falls", "Negative sentiment hits iron producers.",
-                "iron", -1.0, 30_000));
-
-        events.add(new EventDef(
-                "Iron demand surges", "Major contracts boost iron demand.",
-                "iron", +1.0, 30_000));
+    public static final String RESOURCE = "/events.csv";
 
-        events.add(new EventDef(
-                "Wood harvest slowdown", "Supply constraints reduce output.",
-                "wood", -1.0, 30_000));
-
-        events.add(new EventDef(
-                "Wood demand spike", "Construction boom increases timber demand.",
-                "wood", +1.0, 30_000));
+    /** The built-in library for the seven-commodity market. */
+    public static List<EventDef> create() {
+        return fromResource(RESOURCE);
+    }
 
-        events.add(new EventDef(
-                "Coal regulation tightening", "Stricter rules squeeze margins.",
-                "coal", -1.0, 30_000));
+    /** Load a CSV from the classpath; bad rows are reported and skipped. */
+    public static List<EventDef> fromResource(String name) {
+        InputStream in = EventLibrary.class.getResourceAsStream(name);
+        if (in == null) throw new IllegalStateException("Missing event library: " + name);
+        List<String> problems = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<EventDef> defs = parse(r, problems);
+            report(name, problems);
+            return defs;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        events.add(new EventDef(
-                "Steel mega-project", "Infrastructure order book lifts steel.",
-                "steel", +1.0, 30_000));
+    /** Load a CSV file; bad rows are added to problems and skipped. */
+    public static List<EventDef> load(Path file, List<String> problems) throws IOException {
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(r, problems);
+        }
+    }
 
-        events.add(new EventDef(
-                "Meat health scare", "Temporary demand drop as news spreads.",
-                "meat", -1.0, 30_000));
+    /**
+     * Parse rows of title,description,stock,shiftPct,durationMs[,weight]. Blank
+     * lines and lines starting with # are skipped; the first other line is the
+     * header, so columns can come in any order.
+     */
+    public static List<EventDef> parse(BufferedReader in, List<String> problems) throws IOException {
+        List<EventDef> out = new ArrayList<>();
+        Map<String, Integer> col = null;
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            List<String> f = split(line);
+            if (col == null) {
+                col = new HashMap<>();
+                for (int i = 0; i < f.size(); i++) col.put(f.get(i).trim().toLowerCase(), i);
+                for (String need : new String[] {"title", "stock", "shiftpct", "durationms"}) {
+                    if (!col.containsKey(need)) throw new IOException("Event library header is missing '" + need + "'");
+                }
+                continue;
+            }
+            try {
+                String title = field(f, col, "title");
+                String stock = field(f, col, "stock");
+                if (title.isEmpty() || stock.isEmpty()) throw new IllegalArgumentException("title and stock are required");
+                String desc = col.containsKey("description") ? field(f, col, "description") : "";
+                double shift = Double.parseDouble(field(f, col, "shiftpct"));
+                int duration = Integer.parseInt(field(f, col, "durationms"));
+                Integer wc = col.get("weight");   // optional, and may be left off the end of a row
+                String w = wc != null && wc < f.size() ? f.get(wc).trim() : "";
+                double weight = w.isEmpty() ? 1.0 : Double.parseDouble(w);
+                out.add(new EventDef(title, desc, stock, shift, duration, weight));
+            } catch (IllegalArgumentException e) {   // includes NumberFormatException
+                problems.add("line " + lineNo + ": " + e.getMessage());
+            }
+        }
+        return out;
+    }
 
-        events.add(new EventDef(
-                "Paper contract win", "Large publishing deal secured.",
-                "paper", +1.0, 30_000));
+    /** Keep only defs whose stock (or factor) exists in the market; the rest go to problems. */
+    public static List<EventDef> validate(List<EventDef> defs, Market market, List<String> problems) {
+        List<EventDef> ok = new ArrayList<>(defs.size());
+        for (EventDef d : defs) {
+            if (market.hasTarget(d.stockCode)) ok.add(d);
+            else problems.add("'" + d.title + "': unknown stock " + d.stockCode);
+        }
+        return ok;
+    }
 
-        events.add(new EventDef(
-                "Gold safe-haven bid", "Risk-off flows lift gold.",
-                "gold", +1.0, 30_000));
+    static void report(String source, List<String> problems) {
+        for (String p : problems) System.out.println("[EVENTS] " + source + " " + p);
+    }
 
-        // Add more by copy-pasting any line above and adjusting values.
+    private static String field(List<String> f, Map<String, Integer> col, String name) {
+        int i = col.get(name);
+        if (i >= f.size()) throw new IllegalArgumentException("missing " + name);
+        return f.get(i).trim();
+    }
 
-        return events;
+    // one CSV line; double quotes around a field allow commas, "" is a literal quote
+    private static List<String> split(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') { sb.append('"'); i++; }
+                else if (c == '"') quoted = false;
+                else sb.append(c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        out.add(sb.toString());
+        return out;
     }
 
     private EventLibrary() {}
-}
\ No newline at end of file
+}
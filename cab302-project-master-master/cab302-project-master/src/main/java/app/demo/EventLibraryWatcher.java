@@ -0,0 +1,103 @@
+package app.demo;
+
+import events.EventDef;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches an event library CSV and hands the freshly parsed defs to onReload
+ * whenever the file changes, so designers can tune events while the game runs.
+ *
+ * Runs on its own daemon thread and parses there; onReload is called on that
+ * thread too, so it should only swap a reference (see EventEngine.swapEventDefs).
+ * Editors often write a file in several steps, so changes are debounced. A
+ * file that fails to parse is reported and the old pool is kept.
+ */
+public final class EventLibraryWatcher implements AutoCloseable {
+    static final long DEBOUNCE_MS = 200;
+
+    private final Path file;
+    private final Consumer<List<EventDef>> onReload;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    public EventLibraryWatcher(Path file, Consumer<List<EventDef>> onReload) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onReload = onReload;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        // only directories can be watched
+        this.file.getParent().register(watcher,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        thread = new Thread(this::run, "event-library-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public Path file() { return file; }
+
+    private void run() {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = touches(key, name);
+                // keep swallowing events until the file has been quiet for a bit
+                while (changed) {
+                    WatchKey more = watcher.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                    if (more == null) break;
+                    touches(more, name);
+                }
+                if (changed) reload();
+                if (!key.reset()) return;   // directory went away
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    // drains the key's events; true if any of them is our file
+    private static boolean touches(WatchKey key, Path name) {
+        boolean hit = false;
+        for (WatchEvent<?> ev : key.pollEvents()) {
+            if (name.equals(ev.context())) hit = true;
+        }
+        key.reset();
+        return hit;
+    }
+
+    /** Parse the file now and pass it on; returns false (and keeps the old pool) on errors. */
+    public boolean reload() {
+        List<String> problems = new ArrayList<>();
+        List<EventDef> defs;
+        try {
+            defs = EventLibrary.load(file, problems);
+        } catch (IOException e) {
+            System.out.println("[EVENTS] " + file + " not reloaded: " + e.getMessage());
+            return false;
+        }
+        EventLibrary.report(file.toString(), problems);
+        if (defs.isEmpty()) {
+            System.out.println("[EVENTS] " + file + " has no events, keeping the old pool");
+            return false;
+        }
+        onReload.accept(defs);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+        thread.interrupt();
+    }
+}
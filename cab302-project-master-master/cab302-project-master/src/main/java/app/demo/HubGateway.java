@@ -1,20 +1,100 @@
 package app.demo;
 
 import events.MarketEvent;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Events from any thread are queued here and handed to the hub once per JavaFX
+// frame, instead of one Platform.runLater each. The frame timer only runs while
+// something is waiting, so an idle hub doesn't force a pulse every frame.
 public final class HubGateway {
-    private static java.util.function.Consumer<MarketEvent> sink;
+    static final int MAX_PER_FRAME = 64;       // events handed to the hub per pulse
+    static final int MAX_PENDING = 4096;       // past this the oldest are dropped
+
+    private static volatile java.util.function.Consumer<MarketEvent> sink;
+
+    private static final ConcurrentLinkedQueue<MarketEvent> pending = new ConcurrentLinkedQueue<>();
+    private static final Set<Object> pendingKeys = ConcurrentHashMap.newKeySet();  // to coalesce repeats
+    private static final AtomicInteger pendingCount = new AtomicInteger();
+    private static final AtomicLong delivered = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong coalesced = new AtomicLong();
+
+    private static AnimationTimer pump;   // FX thread only
+    private static boolean pumping;       // FX thread only
 
     // Hub calls this once to register its java.demo.EventBus
     public static void register(java.util.function.Consumer<MarketEvent> s) {
         sink = s;
+        if (pendingCount.get() > 0) Platform.runLater(HubGateway::startPump);
     }
 
     // Anywhere else can call this to deliver an event to the java.demo.hub
     public static void publish(MarketEvent evt) {
-        if (sink != null) {
-            Platform.runLater(() -> sink.accept(evt));
+        if (sink == null) return;
+
+        // the same event already waiting for the next frame adds nothing
+        if (!pendingKeys.add(evt.key())) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        pending.add(evt);
+        int count = pendingCount.incrementAndGet();
+        if (count == 1) Platform.runLater(HubGateway::startPump);   // queue was empty, wake the pump
+        if (count > MAX_PENDING) {
+            MarketEvent old = pending.poll();
+            if (old != null) {
+                pendingKeys.remove(old.key());
+                pendingCount.decrementAndGet();
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    public static long delivered() { return delivered.get(); }
+    public static long dropped() { return dropped.get(); }
+    public static long coalesced() { return coalesced.get(); }
+    public static int pending() { return pendingCount.get(); }
+
+    private static void startPump() {
+        if (pumping) return;
+        if (pump == null) {
+            pump = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    // a publish after this sees the count go 0 -> 1 and starts us again
+                    if (drain(MAX_PER_FRAME)) stopPump();
+                }
+            };
+        }
+        pumping = true;
+        pump.start();
+    }
+
+    private static void stopPump() {
+        pumping = false;
+        pump.stop();
+    }
+
+    // runs on the FX thread once per pulse; anything over the cap waits for the next frame.
+    // True if the queue ran dry.
+    static boolean drain(int max) {
+        java.util.function.Consumer<MarketEvent> s = sink;
+        if (s == null) return true;
+        for (int i = 0; i < max; i++) {
+            MarketEvent evt = pending.poll();
+            if (evt == null) return true;
+            pendingKeys.remove(evt.key());
+            pendingCount.decrementAndGet();
+            s.accept(evt);
+            delivered.incrementAndGet();
         }
+        return pending.isEmpty();
     }
 }
@@ -1,6 +1,8 @@
 package app.demo;
 
+import core.Analytics;
 import core.Market;
+import core.PriceBook;
 import events.EventEngine;
 
 import java.util.List;
@@ -9,15 +11,45 @@ import java.util.Random;
 public final class MorningBriefService {
 
     public String build(Market market, EventEngine engine) {
+        return build(market, engine, null);
+    }
+
+    // with analytics the quiet-day brief points at the stock that's actually moving
+    public String build(Market market, EventEngine engine, Analytics stats) {
         // Prioritize a live event
-        List<EventEngine.ActiveEvent> active = new java.util.ArrayList<>(engine.getActiveEvents());
+        List<EventEngine.ActiveEvent> active = engine.getActiveEvents();   // immutable snapshot
         if (!active.isEmpty()) {
             EventEngine.ActiveEvent hot = active.stream()
                     .max(java.util.Comparator.comparingDouble(ae -> Math.abs(ae.def.shiftPct)))
                     .get();
             String tone = hot.def.shiftPct >= 0 ? "tailwinds" : "headwinds";
-            return String.format("Morning. '%s' is live on %s (%.2f%%). Expect %s—trade with care.",
+            String brief = String.format("Morning. '%s' is live on %s (%.2f%%). Expect %s—trade with care.",
                     hot.def.title, hot.def.stockCode.toUpperCase(), hot.def.shiftPct, tone);
+            int id = market.book().id(hot.def.stockCode);
+            if (stats != null && id >= 0 && stats.samples(id) >= 2) {
+                brief += String.format(" It's been swinging %.2f%% a tick.", stats.volatility(id) * 100);
+            }
+            return brief;
+        }
+
+        // Otherwise the biggest move away from its average
+        if (stats != null) {
+            PriceBook book = market.book();
+            int best = -1;
+            for (int id = 0; id < book.size(); id++) {
+                if (stats.samples(id) < 2) continue;
+                if (best < 0 || Math.abs(stats.trend(id)) > Math.abs(stats.trend(best))) best = id;
+            }
+            if (best >= 0) {
+                double trend = stats.trend(best);
+                String brief = String.format("Morning. %s is %.1f%% %s its average at $%.2f (swinging %.2f%% a tick).",
+                        book.code(best).toUpperCase(), Math.abs(trend) * 100, trend >= 0 ? "above" : "below",
+                        book.price(best), stats.volatility(best) * 100);
+                if (stats.drawdown(best) > 0.02) {
+                    brief += String.format(" It's %.1f%% off its high.", stats.drawdown(best) * 100);
+                }
+                return brief;
+            }
         }
 
         // Otherwise nudge to a random/cheap ticker
@@ -25,7 +57,7 @@ public final class MorningBriefService {
         Stock pick = pool.isEmpty() ? null : pool.get(new Random().nextInt(pool.size()));
         if (pick != null) {
             return String.format("Morning. Keep an eye on %s around $%.2f; no live events yet—watch the open.",
-                    pick.code.toUpperCase(), pick.price);
+                    pick.code.toUpperCase(), pick.price());
         }
         return "Morning. Quiet open—no signals yet.";
     }
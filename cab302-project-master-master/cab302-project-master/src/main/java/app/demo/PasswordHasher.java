@@ -0,0 +1,20 @@
+package app.demo;
+
+/**
+ * Turns passwords into stored hashes and checks them. The stored string says
+ * which scheme made it, so old hashes keep working after the default changes.
+ */
+public interface PasswordHasher {
+
+    String hash(String rawPassword);
+
+    boolean verify(String rawPassword, String storedHash);
+
+    /** True if storedHash should be replaced with a fresh hash() after a successful login. */
+    boolean needsRehash(String storedHash);
+
+    /** The hasher accounts use: salted PBKDF2, also accepting legacy MD5 rows. */
+    static PasswordHasher standard() {
+        return Pbkdf2PasswordHasher.DEFAULT;
+    }
+}
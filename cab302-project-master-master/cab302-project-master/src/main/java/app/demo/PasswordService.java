@@ -0,0 +1,79 @@
+package app.demo;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs password hashing and checking on a small fixed pool with a bounded
+ * queue, so a burst of logins can't pile unbounded PBKDF2 work onto the CPU or
+ * block the JavaFX thread. When the queue is full the future fails with
+ * RejectedExecutionException straight away instead of making everyone wait.
+ */
+public final class PasswordService {
+    public static final int DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    public static final int DEFAULT_QUEUE = 64;
+
+    private static PasswordService shared;
+
+    public static synchronized PasswordService getInstance() {
+        if (shared == null) shared = new PasswordService(PasswordHasher.standard(), DEFAULT_THREADS, DEFAULT_QUEUE);
+        return shared;
+    }
+
+    private final PasswordHasher hasher;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    public PasswordService(PasswordHasher hasher, int threads, int queueCapacity) {
+        this.hasher = hasher;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hasher");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public PasswordHasher hasher() { return hasher; }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> hasher.hash(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> verify(String rawPassword, String storedHash) {
+        return submit(() -> hasher.verify(rawPassword, storedHash));
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    f.complete(work.call());
+                } catch (Throwable t) {
+                    f.completeExceptionally(t);
+                } finally {
+                    totalNanos.addAndGet(System.nanoTime() - start);
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            f.completeExceptionally(e);
+        }
+        return f;
+    }
+
+    // metrics
+    public int queueDepth() { return executor.getQueue().size(); }
+    public int active() { return executor.getActiveCount(); }
+    public long completed() { return completed.get(); }
+    public long rejected() { return rejected.get(); }
+    public double averageMillis() {
+        long n = completed.get();
+        return n == 0 ? 0 : totalNanos.get() / 1e6 / n;
+    }
+}
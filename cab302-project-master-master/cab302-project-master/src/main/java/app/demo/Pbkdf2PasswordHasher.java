@@ -0,0 +1,93 @@
+package app.demo;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA512 with a random 16-byte salt per password, stored as
+ * "pbkdf2$<iterations>$<salt>$<hash>" (base64). Stored values that are 32 hex
+ * chars are the old unsalted MD5 from passwordEncryption: they still verify, and
+ * needsRehash() says to replace them.
+ */
+public final class Pbkdf2PasswordHasher implements PasswordHasher {
+    // OWASP's current figure for SHA-512; -Dpassword.iterations=... to tune
+    public static final int DEFAULT_ITERATIONS = Integer.getInteger("password.iterations", 210_000);
+    static final Pbkdf2PasswordHasher DEFAULT = new Pbkdf2PasswordHasher(DEFAULT_ITERATIONS);
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA512";
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1) throw new IllegalArgumentException("iterations must be positive");
+        this.iterations = iterations;
+    }
+
+    public int iterations() { return iterations; }
+
+    @Override
+    public String hash(String rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] dk = derive(rawPassword, salt, iterations);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(dk);
+    }
+
+    @Override
+    public boolean verify(String rawPassword, String storedHash) {
+        if (rawPassword == null || storedHash == null) return false;
+        if (isLegacy(storedHash)) {
+            String md5 = passwordEncryption.hashPassword(rawPassword);
+            return md5 != null && MessageDigest.isEqual(md5.getBytes(), storedHash.toLowerCase().getBytes());
+        }
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4 || !parts[0].equals("pbkdf2")) return false;
+        try {
+            int iters = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(derive(rawPassword, salt, iters), expected);
+        } catch (IllegalArgumentException e) {
+            return false;   // mangled row
+        }
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(PREFIX)) return true;
+        int end = storedHash.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(storedHash.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    static boolean isLegacy(String stored) {
+        if (stored.length() != 32) return false;
+        for (int i = 0; i < 32; i++) {
+            if (Character.digit(stored.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -1,40 +1,53 @@
 package app.demo;
 
+import core.PriceBook;
+
 import java.util.Random;
 
 // stock logic all stocks have the same logic for now in terms of increasing %
+// The numbers themselves live in a core.PriceBook row; this is just a named handle onto it.
 public final class Stock {
     public final String code;
-    public double price;
-    public double lastPrice;
 
     // Base value for random increase
     public final double baseMinPct = -0.1;
     public final double baseMaxPct = +0.3;
 
-    // Current shift - its 0 at the java.demo.start cause no events, this changes when a new event appears
-    private double shiftPct = 0.0;
+    // Where our row lives once a Market adopts the stock; until then it's just the starting values.
+    private PriceBook book;
+    private int id = -1;
+    private final double initialPrice;
+    private double initialShift = 0;
 
     public Stock(String code, double initialPrice) {
         this.code = code;
-        this.price = initialPrice;
-        this.lastPrice = initialPrice;
+        this.initialPrice = initialPrice;
+    }
+
+    /** Give this stock a row in a market's book (called by core.Market.add). A stock can only be in one market. */
+    public void bindTo(PriceBook target) {
+        if (book != null) throw new IllegalStateException("Stock " + code + " is already in a market");
+        int newId = target.add(code, initialPrice, baseMinPct, baseMaxPct);
+        target.setShiftPct(newId, initialShift);
+        this.book = target;
+        this.id = newId;
     }
 
+    public int id() { return id; }
+    public double price() { return book == null ? initialPrice : book.price(id); }
+    public double lastPrice() { return book == null ? initialPrice : book.lastPrice(id); }
+    // Current shift - its 0 at the java.demo.start cause no events, this changes when a new event appears
+    public double shiftPct() { return book == null ? initialShift : book.shiftPct(id); }
+
     // every tick pick a random number between the min adn max pct (base is -.01 to 0.3) events effect this number
     public void tick(Random rng) {
-        double minPct = baseMinPct + shiftPct;
-        double maxPct = baseMaxPct + shiftPct;
-        double rPct = minPct + rng.nextDouble() * (maxPct - minPct);
-        double r = rPct / 100.0; // convert percentage points to decimal
-
-        lastPrice = price;
-        price = price * (1.0 + r);
-        if (price < 0.01) price = 0.01; // guardrail
+        if (book == null) throw new IllegalStateException("Stock " + code + " isn't in a market yet");
+        book.tick(id, rng);
     }
 
     // apply and shifts in the market
     public void addShift(double deltaPct) {
-        shiftPct += deltaPct;
+        if (book == null) initialShift += deltaPct;
+        else book.addShift(id, deltaPct);
     }
-}
\ No newline at end of file
+}
@@ -27,7 +27,7 @@ public final class StocksPanel {
         this.table.setRowHeight(24);
 
         for (Stock s : market.list()) {
-            model.addRow(new Object[] { s.code, MONEY.format(s.price), PCT.format(0.0) });
+            model.addRow(new Object[] { s.code, MONEY.format(s.price()), PCT.format(0.0) });
         }
 
         this.root = new JPanel(new BorderLayout());
@@ -39,8 +39,8 @@ public final class StocksPanel {
     public void refresh() {
         for (int i = 0; i < market.list().size(); i++) {
             Stock s = market.list().get(i);
-            double delta = (s.price - s.lastPrice) / s.lastPrice;
-            model.setValueAt(MONEY.format(s.price), i, 1);
+            double delta = (s.price() - s.lastPrice()) / s.lastPrice();
+            model.setValueAt(MONEY.format(s.price()), i, 1);
             model.setValueAt(PCT.format(delta), i, 2);
         }
     }
@@ -9,15 +9,27 @@ import java.util.Set;
 
 public final class TaskManager {
     private final ObservableList<Task> tasks = FXCollections.observableArrayList();
-    private final Set<String> dayKeys = new HashSet<>();  // Prevent duplication
+    private final Set<String> dayKeys = new HashSet<>();  // Prevent duplication (saved with the game)
+    private final Set<Object> seenToday = new HashSet<>(); // MarketEvent.key()s already handled, so repeats build no text
 
     public ObservableList<Task> getTasks() { return tasks; }
-    public void resetForNewDay() { tasks.clear(); dayKeys.clear(); }
+    public void resetForNewDay() { tasks.clear(); dayKeys.clear(); seenToday.clear(); }
     public void markAllDone() { tasks.forEach(Task::markDone); tasks.setAll(FXCollections.observableArrayList(tasks)); }
-    public void clear() { tasks.clear(); dayKeys.clear(); }
+    public void clear() { tasks.clear(); dayKeys.clear(); seenToday.clear(); }
+
+    // for save/load: the events already turned into tasks today
+    public Set<String> getDayKeys() { return java.util.Collections.unmodifiableSet(dayKeys); }
+    public void restore(java.util.List<Task> saved, java.util.Collection<String> keys) {
+        tasks.setAll(saved);
+        dayKeys.clear();
+        dayKeys.addAll(keys);
+        seenToday.clear();
+    }
 
     public void onEvent(MarketEvent evt) {
-        String key = evt.type + "|" + evt.detail;
+        if (!seenToday.add(evt.key())) return;   // repeat: no strings built
+        // first time today for this event; the text key also catches ones from a loaded save
+        String key = evt.type + "|" + evt.detail();
         if (dayKeys.contains(key)) return;
         String label = makePlayerAction(evt);
         tasks.add(new Task(label));
@@ -27,11 +39,11 @@ public final class TaskManager {
 
     private String makePlayerAction(MarketEvent evt) {
         return switch (evt.type) {
-            case "OPEC"      -> "Energy: adjust OIL positioning — " + evt.detail;
-            case "EARNINGS"  -> "Decide BHP move on earnings — " + evt.detail;
-            case "RATE_HIKE" -> "Rebalance rate-sensitive names — " + evt.detail;
-            case "NEWS"      -> "Review positions affected — " + evt.detail;
-            default          -> "Respond: " + evt.detail;
+            case OPEC      -> "Energy: adjust OIL positioning — " + evt.detail();
+            case EARNINGS  -> "Decide BHP move on earnings — " + evt.detail();
+            case RATE_HIKE -> "Rebalance rate-sensitive names — " + evt.detail();
+            case NEWS      -> "Review positions affected — " + evt.detail();
+            default          -> "Respond: " + evt.detail();
         };
     }
 }
@@ -1,20 +1,29 @@
 package app.demo.data;
 
-import app.demo.passwordEncryption;
+import app.demo.PasswordService;
+
+import java.util.concurrent.CompletableFuture;
 
 public class Account {
     private String username;
     private String passwordHash;
 
-    public Account(String username, String password){
-        this.username = username;
-        this.passwordHash = passwordEncryption.hashPassword(password);
-    }
-    public Account(String username, String passwordHash, boolean alreadyHashed) {
+    // private so old new Account(user, rawPassword) calls fail to compile instead of storing the raw password
+    private Account(String username, String passwordHash) {
         this.username = username;
         this.passwordHash = passwordHash;
     }
 
+    // from a hash that's already stored, e.g. an accounts row or an export
+    public static Account fromHash(String username, String passwordHash) {
+        return new Account(username, passwordHash);
+    }
+
+    // hashes on the PasswordService pool, never on the caller's (e.g. the UI) thread
+    public static CompletableFuture<Account> withPassword(String username, String rawPassword, PasswordService passwords) {
+        return passwords.hash(rawPassword).thenApply(hash -> new Account(username, hash));
+    }
+
     public String getUsername(){
         return username;
     }
@@ -0,0 +1,168 @@
+package app.demo.data;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Read-through cache in front of the accounts table, one per ConnectionPool.
+ *
+ * A Bloom filter of every username (filled by AccountDAO.initialiseDatabase)
+ * answers "definitely not taken" without touching SQLite, which is most of what
+ * a registration form typing a new name asks. Names that might exist go through
+ * a bounded LRU of username -> stored hash; names the database said were
+ * missing are cached too, until someone registers them.
+ */
+final class AccountCache {
+    static final int DEFAULT_CAPACITY = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final String MISSING = new String("missing");   // identity marker, never a real hash
+
+    private static final Map<ConnectionPool, AccountCache> byPool = new WeakHashMap<>();
+
+    static synchronized AccountCache of(ConnectionPool pool) {
+        return byPool.computeIfAbsent(pool, p -> new AccountCache(DEFAULT_CAPACITY));
+    }
+
+    /** Loads a stored hash from the database, null if there's no such user. */
+    @FunctionalInterface
+    interface Loader {
+        String load(String username) throws SQLException;
+    }
+
+    private final LinkedHashMap<String, String> lru;
+    private Bloom bloom;            // null until load()
+    private int bloomExpected;
+    private int bloomCount;
+    private long hits, misses, bloomRejects;
+    private long generation;        // bumped by every write, so a read that raced one isn't cached
+
+    AccountCache(int capacity) {
+        this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** (Re)build the Bloom filter from every username in the table. */
+    synchronized void load(ConnectionPool pool) throws SQLException {
+        int count = pool.read(c -> {
+            try (ResultSet rs = c.prepare("SELECT COUNT(*) FROM accounts").executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+        Bloom b = new Bloom(Math.max(1024, count * 2), FALSE_POSITIVE_RATE);
+        pool.read(c -> {
+            PreparedStatement ps = c.prepare("SELECT username FROM accounts");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) b.add(rs.getString(1));
+            }
+            return null;
+        });
+        bloom = b;
+        bloomExpected = Math.max(1024, count * 2);
+        bloomCount = count;
+        // anything cached as missing may have been registered by someone else meanwhile
+        lru.values().removeIf(v -> v == MISSING);
+        generation++;
+    }
+
+    /** Stored hash for a user (null if none), from memory when we can. */
+    String storedHash(String username, Loader loader) throws SQLException {
+        long gen;
+        synchronized (this) {
+            if (bloom != null && !bloom.mightContain(username)) {
+                bloomRejects++;
+                return null;
+            }
+            String cached = lru.get(username);
+            if (cached != null) {
+                hits++;
+                return cached == MISSING ? null : cached;
+            }
+            misses++;
+            gen = generation;
+        }
+        String stored = loader.load(username);   // outside the lock, it's a database read
+        synchronized (this) {
+            // a registration or rehash landed while we read: our answer may be older than the
+            // entry it left, so don't cache it (the next read goes to the database again)
+            if (generation == gen) lru.put(username, stored == null ? MISSING : stored);
+        }
+        return stored;
+    }
+
+    /** A user was created (hash may be null when we don't want it in the LRU, e.g. bulk imports). */
+    synchronized void added(String username, String hash) {
+        if (bloom != null) {
+            bloom.add(username);
+            // past its sizing the filter's false positives climb; keep working, just less well, until reload
+            bloomCount++;
+        }
+        if (hash == null) lru.remove(username);
+        else lru.put(username, hash);
+        generation++;
+    }
+
+    /** A user's hash changed. */
+    synchronized void updated(String username, String hash) {
+        if (lru.containsKey(username)) lru.put(username, hash);
+        generation++;
+    }
+
+    synchronized boolean needsReload() { return bloom != null && bloomCount > bloomExpected; }
+
+    synchronized long hits() { return hits; }
+    synchronized long misses() { return misses; }
+    synchronized long bloomRejects() { return bloomRejects; }
+
+    // plain Bloom filter over a long[]; k probes from two halves of a 64-bit FNV-1a hash
+    private static final class Bloom {
+        private final long[] bits;
+        private final int m;
+        private final int k;
+
+        Bloom(int expected, double fpp) {
+            int size = (int) Math.min(Integer.MAX_VALUE - 64,
+                    Math.ceil(-expected * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+            this.m = Math.max(64, size);
+            this.k = Math.max(1, (int) Math.round((double) m / expected * Math.log(2)));
+            this.bits = new long[(m + 63) >>> 6];
+        }
+
+        void add(String s) {
+            long h = hash(s);
+            int h1 = (int) h, h2 = (int) (h >>> 32);
+            for (int i = 0; i < k; i++) {
+                int bit = Math.floorMod(h1 + i * h2, m);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String s) {
+            long h = hash(s);
+            int h1 = (int) h, h2 = (int) (h >>> 32);
+            for (int i = 0; i < k; i++) {
+                int bit = Math.floorMod(h1 + i * h2, m);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        private static long hash(String s) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                h ^= s.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;   // spread into both halves
+            h *= 0xff51afd7ed558ccdL;
+            return h ^ (h >>> 33);
+        }
+    }
+}
@@ -1,35 +1,49 @@
 package app.demo.data;
 
 import app.demo.LoginDetailsDAO;
-import app.demo.passwordEncryption;
+import app.demo.PasswordService;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 public class AccountDAO implements LoginDetailsDAO {
 
-    // Create table if missing
+    // rows per transaction for importAccounts
+    public static final int IMPORT_CHUNK = 10_000;
+
+    private final ConnectionPool pool;
+    private final PasswordService passwords;
+    private final AccountCache cache;   // shared by every DAO on the same pool
+    private RegistrationBatcher batcher;   // started on first registerAsync
+
+    public AccountDAO() { this(ConnectionPool.getInstance()); }
+    public AccountDAO(ConnectionPool pool) { this(pool, PasswordService.getInstance()); }
+    public AccountDAO(ConnectionPool pool, PasswordService passwords) {
+        this.pool = pool;
+        this.passwords = passwords;
+        this.cache = AccountCache.of(pool);
+    }
+
+    // Create/upgrade tables if needed
     public static void initialiseDatabase() {
-        String sql = "CREATE TABLE IF NOT EXISTS accounts (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "username TEXT UNIQUE NOT NULL, " +
-                "password TEXT NOT NULL)";
-        Connection connection = SqLiteConnection.getInstance();
-        try (Statement statement = connection.createStatement()) {
-            statement.execute(sql);
+        initialiseDatabase(ConnectionPool.getInstance());
+    }
+
+    public static void initialiseDatabase(ConnectionPool pool) {
+        try {
+            Migrations.migrate(pool);   // accounts plus the game data tables
+            AccountCache.of(pool).load(pool);   // Bloom filter of every username
         } catch (SQLException ex) {
             throw new RuntimeException(ex);
         }
     }
 
     // ---------- Check username (username-only) ----------
+    // Served from AccountCache when it can (a Bloom miss or LRU hit never reaches SQLite)
     public boolean usernameExists(String username) {
-        String sql = "SELECT 1 FROM accounts WHERE username = ? LIMIT 1";
-        Connection connection = SqLiteConnection.getInstance(); // do not close
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, username);
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
-            }
+        try {
+            return storedHash(username) != null;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -39,28 +53,25 @@ public class AccountDAO implements LoginDetailsDAO {
     // ---------- Create using RAW password ----------
     // Returns true if the row was inserted, false otherwise
     public boolean register(String username, String rawPassword) {
-        String sql = "INSERT INTO accounts(username, password) VALUES(?, ?)";
-        String hashed = passwordEncryption.hashPassword(rawPassword);
-        Connection connection = SqLiteConnection.getInstance(); // do not close
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, username);
-            ps.setString(2, hashed);
-            return ps.executeUpdate() == 1;
-        } catch (SQLException e) {
-            if (e.getMessage() != null && e.getMessage().contains("UNIQUE")) return false;
-            e.printStackTrace();
-            return false;
-        }
+        return insert(username, passwords.hash(rawPassword).join());
     }
 
     // ---------- Create with Account object ----------
     public boolean tryCreateAccount(Account account) {
+        return insert(account.getUsername(), account.getPasswordHash());
+    }
+
+    private boolean insert(String username, String hashed) {
         String sql = "INSERT INTO accounts(username, password) VALUES(?, ?)";
-        Connection connection = SqLiteConnection.getInstance(); // do not close
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, account.getUsername());
-            ps.setString(2, account.getPasswordHash());
-            return ps.executeUpdate() == 1;
+        try {
+            return pool.write(c -> {
+                PreparedStatement ps = c.prepare(sql);
+                ps.setString(1, username);
+                ps.setString(2, hashed);
+                boolean created = ps.executeUpdate() == 1;
+                if (created) cacheAdded(username, hashed);
+                return created;
+            });
         } catch (SQLException e) {
             if (e.getMessage() != null && e.getMessage().contains("UNIQUE")) return false;
             e.printStackTrace();
@@ -68,6 +79,37 @@ public class AccountDAO implements LoginDetailsDAO {
         }
     }
 
+    // ---------- Async / bulk create ----------
+    // Completes with true if created, false if the username is taken. Waiting
+    // registrations are written together in one transaction on a background thread.
+    public CompletableFuture<Boolean> registerAsync(String username, String rawPassword) {
+        return passwords.hash(rawPassword).thenCompose(hash -> batcher().submit(username, hash)
+                .thenApply(created -> {
+                    if (created) cacheAdded(username, hash);
+                    return created;
+                }));
+    }
+
+    // Seed/import many accounts (passwords already hashed in Account, e.g. from
+    // Account.withPassword or Account.fromHash), IMPORT_CHUNK per
+    // transaction. Completes with how many were new.
+    public CompletableFuture<Integer> importAccounts(Collection<Account> accounts) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                int created = RegistrationBatcher.importAll(pool, accounts.iterator(), IMPORT_CHUNK);
+                cache.load(pool);   // resize the Bloom filter for the new rows
+                return created;
+            } catch (SQLException e) {
+                throw new java.util.concurrent.CompletionException(e);
+            }
+        });
+    }
+
+    private synchronized RegistrationBatcher batcher() {
+        if (batcher == null) batcher = new RegistrationBatcher(pool);
+        return batcher;
+    }
+
     // Keep interface contract; delegate to boolean version
     @Override
     public void CreateAccount(Account account) {
@@ -75,17 +117,32 @@ public class AccountDAO implements LoginDetailsDAO {
     }
 
     // ---------- Confirm login ----------
+    // Hash checks run on the PasswordService pool; a legacy MD5 row is re-hashed
+    // with the current scheme after a successful login.
+    // The lookup runs off the caller's thread too, so the FX thread never waits on SQLite.
+    public CompletableFuture<Boolean> confirmLoginAsync(String username, String password) {
+        if (password == null) return CompletableFuture.completedFuture(false);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return storedHash(username);
+            } catch (SQLException e) {
+                throw new java.util.concurrent.CompletionException(e);
+            }
+        }).thenCompose(stored -> {
+            if (stored == null) return CompletableFuture.completedFuture(false);
+            return passwords.verify(password, stored).thenApply(ok -> {
+                if (ok && passwords.hasher().needsRehash(stored)) {
+                    passwords.hash(password).thenAccept(fresh -> updateHash(username, stored, fresh));
+                }
+                return ok;
+            });
+        });
+    }
+
     @Override
     public boolean ConfrimLogin(String username, String password) {
-        String hashedPassword = passwordEncryption.hashPassword(password);
-        String sql = "SELECT COUNT(*) FROM accounts WHERE username = ? AND password = ?";
-        Connection connection = SqLiteConnection.getInstance(); // do not close
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, username);
-            statement.setString(2, hashedPassword);
-            try (ResultSet result = statement.executeQuery()) {
-                return result.next() && result.getInt(1) > 0;
-            }
+        try {
+            return confirmLoginAsync(username, password).join();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -95,24 +152,56 @@ public class AccountDAO implements LoginDetailsDAO {
     // ---------- Get account ----------
     @Override
     public Account getAccount(String username, String password) {
-        String hashedPassword = passwordEncryption.hashPassword(password);
-        String sql = "SELECT username, password FROM accounts WHERE username = ? AND password = ?";
-        Connection connection = SqLiteConnection.getInstance(); // do not close
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        try {
+            String stored = storedHash(username);
+            if (stored == null || !passwords.verify(password, stored).join()) return null;
+            return Account.fromHash(username, stored);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void cacheAdded(String username, String hash) {
+        cache.added(username, hash);
+        if (cache.needsReload()) {
+            try {
+                cache.load(pool);   // outgrew the Bloom filter's sizing
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private String storedHash(String username) throws SQLException {
+        return cache.storedHash(username, this::loadHash);
+    }
+
+    private String loadHash(String username) throws SQLException {
+        String sql = "SELECT password FROM accounts WHERE username = ?";
+        return pool.read(c -> {
+            PreparedStatement statement = c.prepare(sql);
             statement.setString(1, username);
-            statement.setString(2, hashedPassword);
             try (ResultSet result = statement.executeQuery()) {
-                if (result.next()) {
-                    return new Account(
-                            result.getString("username"),
-                            result.getString("password"),
-                            true // already hashed flag
-                    );
-                }
+                return result.next() ? result.getString(1) : null;
             }
+        });
+    }
+
+    // only replaces the hash we verified against, in case the password changed meanwhile
+    private void updateHash(String username, String oldHash, String newHash) {
+        String sql = "UPDATE accounts SET password = ? WHERE username = ? AND password = ?";
+        try {
+            pool.write(c -> {
+                PreparedStatement ps = c.prepare(sql);
+                ps.setString(1, newHash);
+                ps.setString(2, username);
+                ps.setString(3, oldHash);
+                int n = ps.executeUpdate();
+                if (n == 1) cache.updated(username, newHash);
+                return n;
+            });
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            e.printStackTrace();
         }
-        return null;
     }
 }
@@ -0,0 +1,159 @@
+package app.demo.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Small SQLite connection pool: one writer connection (SQLite only allows one
+ * writer at a time anyway) and a few read-only connections, all in WAL mode so
+ * reads never wait on a write. Each connection caches its PreparedStatements by
+ * SQL text, so a DAO call doesn't re-parse its query every time.
+ *
+ * A connection is only ever used by one thread at a time: read() lends out a
+ * reader, write() holds the writer lock.
+ */
+public final class ConnectionPool implements AutoCloseable {
+    public static final int DEFAULT_READERS = Integer.getInteger("db.readers", 4);
+
+    private static ConnectionPool shared;
+
+    /** The pool for SqLiteConnection.URL, opened on first use. */
+    public static synchronized ConnectionPool getInstance() {
+        if (shared == null) {
+            try {
+                shared = new ConnectionPool(SqLiteConnection.URL, DEFAULT_READERS);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not open database " + SqLiteConnection.URL, e);
+            }
+        }
+        return shared;
+    }
+
+    /** Work done with a pooled connection. */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Pooled c) throws SQLException;
+    }
+
+    /** A pooled connection plus its statement cache. Don't close statements from prepare(). */
+    public static final class Pooled {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private Pooled(Connection connection) { this.connection = connection; }
+
+        public Connection connection() { return connection; }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement ps = statements.get(sql);
+            if (ps == null || ps.isClosed()) {
+                ps = connection.prepareStatement(sql);
+                statements.put(sql, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+
+        private void close() {
+            for (PreparedStatement ps : statements.values()) {
+                try { ps.close(); } catch (SQLException ignored) { }
+            }
+            statements.clear();
+            try { connection.close(); } catch (SQLException ignored) { }
+        }
+    }
+
+    private final Pooled writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<Pooled> readers;
+    private final Pooled[] allReaders;
+
+    public ConnectionPool(String url, int readerCount) throws SQLException {
+        // writer first: it creates the file and switches it to WAL, which sticks for later connections
+        writer = new Pooled(SqLiteConnection.open(url));
+        pragmas(writer.connection, false);
+
+        allReaders = new Pooled[Math.max(0, readerCount)];
+        readers = new ArrayBlockingQueue<>(Math.max(1, allReaders.length));
+        for (int i = 0; i < allReaders.length; i++) {
+            allReaders[i] = new Pooled(SqLiteConnection.open(url));
+            pragmas(allReaders[i].connection, true);
+            readers.add(allReaders[i]);
+        }
+    }
+
+    private static void pragmas(Connection c, boolean readOnly) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute("PRAGMA journal_mode=WAL");
+            st.execute("PRAGMA synchronous=NORMAL");        // safe with WAL, much cheaper than FULL
+            st.execute("PRAGMA mmap_size=268435456");       // read pages straight from a 256MB mapping
+            st.execute("PRAGMA temp_store=MEMORY");
+            st.execute("PRAGMA busy_timeout=5000");
+            if (readOnly) st.execute("PRAGMA query_only=1");
+        }
+    }
+
+    /** Run read-only work on a reader (the writer if the pool has no readers). */
+    public <T> T read(SqlWork<T> work) throws SQLException {
+        if (allReaders.length == 0) return write(work);
+        Pooled c;
+        try {
+            c = readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a connection", e);
+        }
+        try {
+            return work.run(c);
+        } finally {
+            readers.add(c);
+        }
+    }
+
+    /** Run work on the writer, one caller at a time. */
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            return work.run(writer);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Like write(), but everything inside commits or rolls back together. */
+    public <T> T transaction(SqlWork<T> work) throws SQLException {
+        return write(c -> {
+            Connection conn = c.connection();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(c);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            writer.close();
+        } finally {
+            writeLock.unlock();
+        }
+        for (Pooled r : allReaders) r.close();
+    }
+}
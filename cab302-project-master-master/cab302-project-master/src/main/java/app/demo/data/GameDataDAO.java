@@ -0,0 +1,188 @@
+package app.demo.data;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-account game data: holdings, end-of-day results and the events a player
+ * lived through. Writes take a whole collection and go in one transaction as
+ * upserts; the read queries are the ones the indexes in Migrations cover.
+ */
+public class GameDataDAO {
+
+    public static final class Holding {
+        public final String stockCode;
+        public final long quantity;
+        public final double avgCost;
+        public Holding(String stockCode, long quantity, double avgCost) {
+            this.stockCode = stockCode; this.quantity = quantity; this.avgCost = avgCost;
+        }
+    }
+
+    public static final class DailyResult {
+        public final int accountId;
+        public final int day;
+        public final int cash;
+        public final double netWorth;
+        public final int reputation;
+        public DailyResult(int accountId, int day, int cash, double netWorth, int reputation) {
+            this.accountId = accountId; this.day = day; this.cash = cash;
+            this.netWorth = netWorth; this.reputation = reputation;
+        }
+    }
+
+    public static final class EventRecord {
+        public final int day;
+        public final long atMs;
+        public final String kind;        // STARTED / ENDED / REVERTED
+        public final String stockCode;
+        public final String title;
+        public final double shiftPct;
+        public EventRecord(int day, long atMs, String kind, String stockCode, String title, double shiftPct) {
+            this.day = day; this.atMs = atMs; this.kind = kind;
+            this.stockCode = stockCode; this.title = title; this.shiftPct = shiftPct;
+        }
+    }
+
+    private final ConnectionPool pool;
+
+    public GameDataDAO() { this(ConnectionPool.getInstance()); }
+    public GameDataDAO(ConnectionPool pool) { this.pool = pool; }
+
+    /** accounts.id for a username, or -1. */
+    public int accountId(String username) throws SQLException {
+        return pool.read(c -> {
+            PreparedStatement ps = c.prepare("SELECT id FROM accounts WHERE username = ?");
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        });
+    }
+
+    // ---------- Portfolios ----------
+
+    /** Write an account's holdings; a quantity of 0 removes the row. */
+    public void saveHoldings(int accountId, Collection<Holding> holdings, long nowMs) throws SQLException {
+        String upsert = "INSERT INTO portfolios(account_id, stock_code, quantity, avg_cost, updated_at) " +
+                "VALUES(?, ?, ?, ?, ?) ON CONFLICT(account_id, stock_code) DO UPDATE SET " +
+                "quantity = excluded.quantity, avg_cost = excluded.avg_cost, updated_at = excluded.updated_at";
+        String delete = "DELETE FROM portfolios WHERE account_id = ? AND stock_code = ?";
+        pool.transaction(c -> {
+            PreparedStatement up = c.prepare(upsert);
+            PreparedStatement del = c.prepare(delete);
+            for (Holding h : holdings) {
+                if (h.quantity == 0) {
+                    del.setInt(1, accountId);
+                    del.setString(2, h.stockCode);
+                    del.addBatch();
+                } else {
+                    up.setInt(1, accountId);
+                    up.setString(2, h.stockCode);
+                    up.setLong(3, h.quantity);
+                    up.setDouble(4, h.avgCost);
+                    up.setLong(5, nowMs);
+                    up.addBatch();
+                }
+            }
+            up.executeBatch();
+            del.executeBatch();
+            return null;
+        });
+    }
+
+    public List<Holding> holdings(int accountId) throws SQLException {
+        return pool.read(c -> {
+            PreparedStatement ps = c.prepare(
+                    "SELECT stock_code, quantity, avg_cost FROM portfolios WHERE account_id = ? ORDER BY stock_code");
+            ps.setInt(1, accountId);
+            List<Holding> out = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(new Holding(rs.getString(1), rs.getLong(2), rs.getDouble(3)));
+            }
+            return out;
+        });
+    }
+
+    // ---------- Daily results ----------
+
+    public void saveDailyResults(Collection<DailyResult> results) throws SQLException {
+        String upsert = "INSERT INTO daily_results(account_id, day, cash, net_worth, reputation) " +
+                "VALUES(?, ?, ?, ?, ?) ON CONFLICT(account_id, day) DO UPDATE SET " +
+                "cash = excluded.cash, net_worth = excluded.net_worth, reputation = excluded.reputation";
+        pool.transaction(c -> {
+            PreparedStatement ps = c.prepare(upsert);
+            for (DailyResult r : results) {
+                ps.setInt(1, r.accountId);
+                ps.setInt(2, r.day);
+                ps.setInt(3, r.cash);
+                ps.setDouble(4, r.netWorth);
+                ps.setInt(5, r.reputation);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return null;
+        });
+    }
+
+    /** Best net worth on a day, read from idx_daily_results_leaderboard alone. */
+    public List<DailyResult> leaderboard(int day, int limit) throws SQLException {
+        return pool.read(c -> {
+            PreparedStatement ps = c.prepare(
+                    "SELECT account_id, net_worth, reputation FROM daily_results " +
+                            "WHERE day = ? ORDER BY net_worth DESC LIMIT ?");
+            ps.setInt(1, day);
+            ps.setInt(2, limit);
+            List<DailyResult> out = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(new DailyResult(rs.getInt(1), day, 0, rs.getDouble(2), rs.getInt(3)));
+            }
+            return out;
+        });
+    }
+
+    // ---------- Event history ----------
+
+    public void appendEvents(int accountId, Collection<EventRecord> events) throws SQLException {
+        String insert = "INSERT INTO event_history(account_id, day, at_ms, kind, stock_code, title, shift_pct) " +
+                "VALUES(?, ?, ?, ?, ?, ?, ?)";
+        pool.transaction(c -> {
+            PreparedStatement ps = c.prepare(insert);
+            for (EventRecord e : events) {
+                ps.setInt(1, accountId);
+                ps.setInt(2, e.day);
+                ps.setLong(3, e.atMs);
+                ps.setString(4, e.kind);
+                ps.setString(5, e.stockCode);
+                ps.setString(6, e.title);
+                ps.setDouble(7, e.shiftPct);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return null;
+        });
+    }
+
+    /** Newest first, read from idx_event_history_account alone. */
+    public List<EventRecord> history(int accountId, int limit) throws SQLException {
+        return pool.read(c -> {
+            PreparedStatement ps = c.prepare(
+                    "SELECT day, at_ms, kind, stock_code, title, shift_pct FROM event_history " +
+                            "WHERE account_id = ? ORDER BY day DESC, at_ms DESC LIMIT ?");
+            ps.setInt(1, accountId);
+            ps.setInt(2, limit);
+            List<EventRecord> out = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new EventRecord(rs.getInt(1), rs.getLong(2), rs.getString(3),
+                            rs.getString(4), rs.getString(5), rs.getDouble(6)));
+                }
+            }
+            return out;
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package app.demo.data;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Schema versions for the game database. The version lives in SQLite's own
+ * PRAGMA user_version; migrate() applies every step above it, each in its own
+ * transaction, so a half-applied step never sticks. To change the schema, add
+ * a step at the end - never edit one that has shipped.
+ */
+public final class Migrations {
+
+    static final class Step {
+        final int version;
+        final String description;
+        final String[] sql;
+        Step(int version, String description, String... sql) {
+            this.version = version;
+            this.description = description;
+            this.sql = sql;
+        }
+    }
+
+    static final List<Step> STEPS = List.of(
+            new Step(1, "accounts",
+                    "CREATE TABLE IF NOT EXISTS accounts (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "username TEXT UNIQUE NOT NULL, " +
+                            "password TEXT NOT NULL)"),
+            new Step(2, "portfolios, daily results, event history",
+                    // one row per holding; the primary key is the per-account lookup
+                    "CREATE TABLE portfolios (" +
+                            "account_id INTEGER NOT NULL REFERENCES accounts(id), " +
+                            "stock_code TEXT NOT NULL, " +
+                            "quantity INTEGER NOT NULL, " +
+                            "avg_cost REAL NOT NULL, " +
+                            "updated_at INTEGER NOT NULL, " +
+                            "PRIMARY KEY (account_id, stock_code)) WITHOUT ROWID",
+                    "CREATE TABLE daily_results (" +
+                            "account_id INTEGER NOT NULL REFERENCES accounts(id), " +
+                            "day INTEGER NOT NULL, " +
+                            "cash INTEGER NOT NULL, " +
+                            "net_worth REAL NOT NULL, " +
+                            "reputation INTEGER NOT NULL, " +
+                            "PRIMARY KEY (account_id, day)) WITHOUT ROWID",
+                    // leaderboard for a day straight off the index, best first
+                    "CREATE INDEX idx_daily_results_leaderboard " +
+                            "ON daily_results (day, net_worth DESC, account_id, reputation)",
+                    "CREATE TABLE event_history (" +
+                            "id INTEGER PRIMARY KEY, " +
+                            "account_id INTEGER NOT NULL REFERENCES accounts(id), " +
+                            "day INTEGER NOT NULL, " +
+                            "at_ms INTEGER NOT NULL, " +
+                            "kind TEXT NOT NULL, " +
+                            "stock_code TEXT NOT NULL, " +
+                            "title TEXT NOT NULL, " +
+                            "shift_pct REAL NOT NULL)",
+                    // history screen: newest first for one account, every shown column in the index
+                    "CREATE INDEX idx_event_history_account " +
+                            "ON event_history (account_id, day DESC, at_ms DESC, kind, stock_code, title, shift_pct)")
+    );
+
+    private Migrations() {}
+
+    public static int latestVersion() { return STEPS.get(STEPS.size() - 1).version; }
+
+    /** Bring the database up to the latest version. Returns how many steps ran. */
+    public static int migrate(ConnectionPool pool) throws SQLException {
+        return pool.write(c -> {
+            Connection conn = c.connection();
+            int current = userVersion(conn);
+            int applied = 0;
+            for (Step step : STEPS) {
+                if (step.version <= current) continue;
+                conn.setAutoCommit(false);
+                try (Statement st = conn.createStatement()) {
+                    for (String sql : step.sql) st.execute(sql);
+                    st.execute("PRAGMA user_version = " + step.version);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Migration " + step.version + " (" + step.description + ") failed", e);
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                applied++;
+            }
+            return applied;
+        });
+    }
+
+    static int userVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package app.demo.data;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Collects account inserts from any thread and writes them on one background
+ * thread, as many as are waiting (up to MAX_BATCH) per transaction. The insert
+ * is INSERT ... ON CONFLICT DO NOTHING, so "is the name taken?" and "create it"
+ * are a single statement and a taken name just reports false.
+ */
+final class RegistrationBatcher {
+    static final int MAX_BATCH = 1_000;
+    static final String INSERT_SQL =
+            "INSERT INTO accounts(username, password) VALUES(?, ?) ON CONFLICT(username) DO NOTHING";
+
+    private static final class Pending {
+        final String username;
+        final String hash;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Pending(String username, String hash) { this.username = username; this.hash = hash; }
+    }
+
+    private final ConnectionPool pool;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    RegistrationBatcher(ConnectionPool pool) {
+        this.pool = pool;
+        Thread worker = new Thread(this::run, "account-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** Completes with true if the account was created, false if the name was taken. */
+    CompletableFuture<Boolean> submit(String username, String passwordHash) {
+        Pending p = new Pending(username, passwordHash);
+        queue.add(p);
+        return p.result;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            int[] counts = pool.transaction(c -> {
+                PreparedStatement ps = c.prepare(INSERT_SQL);
+                for (Pending p : batch) {
+                    ps.setString(1, p.username);
+                    ps.setString(2, p.hash);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            });
+            for (int i = 0; i < batch.size(); i++) batch.get(i).result.complete(counts[i] > 0);
+        } catch (SQLException | RuntimeException e) {
+            for (Pending p : batch) p.result.completeExceptionally(e);
+        }
+    }
+
+    /** Bulk import on the calling thread, chunk rows per transaction. Returns how many were created. */
+    static int importAll(ConnectionPool pool, Iterator<Account> accounts, int chunk) throws SQLException {
+        int created = 0;
+        while (accounts.hasNext()) {
+            created += pool.transaction(c -> {
+                PreparedStatement ps = c.prepare(INSERT_SQL);
+                int rows = 0;
+                while (rows < chunk && accounts.hasNext()) {
+                    Account a = accounts.next();
+                    ps.setString(1, a.getUsername());
+                    ps.setString(2, a.getPasswordHash());
+                    ps.addBatch();
+                    rows++;
+                }
+                int n = 0;
+                for (int count : ps.executeBatch()) if (count > 0) n++;
+                return n;
+            });
+        }
+        return created;
+    }
+}
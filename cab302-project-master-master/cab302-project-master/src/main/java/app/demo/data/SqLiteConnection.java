@@ -5,20 +5,26 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class SqLiteConnection {
+    // -Ddb.url=... lets benchmarks/tools point at a scratch database instead of contacts.db
+    public static final String URL = System.getProperty("db.url", "jdbc:sqlite:contacts.db");
+
     private static Connection instance = null;
 
     private SqLiteConnection(){}
 
-
-    public static Connection getInstance() {
+    // one-off connection; the DAOs go through ConnectionPool instead
+    public static synchronized Connection getInstance() {
         if (instance == null) {
             try{
-                instance = DriverManager.getConnection("jdbc:sqlite:contacts.db");
+                instance = open(URL);
             }catch (SQLException e){
                 e.printStackTrace();
             }
         }
         return instance;
     }
-}
 
+    static Connection open(String url) throws SQLException {
+        return DriverManager.getConnection(url);
+    }
+}
@@ -1,6 +1,7 @@
 package app.demo;
 
 import app.demo.data.AccountDAO;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.PasswordField;
@@ -29,19 +30,27 @@ public class login_Controller {
         String username = usernameField.getText();
         String password = passwordField.getText();
 
-        if (!dao.ConfrimLogin(username, password)) {
-            showAlert(Alert.AlertType.ERROR, "Login Failed", "Invalid username or password.");
-            return;
-        }
+        // hash check runs off the FX thread; come back to it for the result
+        dao.confirmLoginAsync(username, password).whenComplete((ok, err) -> Platform.runLater(() -> {
+            if (err != null) {
+                err.printStackTrace();
+                showAlert(Alert.AlertType.ERROR, "Login Failed", "The server is busy, please try again.");
+                return;
+            }
+            if (!ok) {
+                showAlert(Alert.AlertType.ERROR, "Login Failed", "Invalid username or password.");
+                return;
+            }
 
-        try {
-            Stage stage = (Stage) usernameField.getScene().getWindow();
-            new start().start(stage); // go to Start page class
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Navigation Error",
-                    "Could not open the start menu.\n" + e.getClass().getSimpleName() + ": " + e.getMessage());
-        }
+            try {
+                Stage stage = (Stage) usernameField.getScene().getWindow();
+                new start().start(stage); // go to Start page class
+            } catch (Exception e) {
+                e.printStackTrace();
+                showAlert(Alert.AlertType.ERROR, "Navigation Error",
+                        "Could not open the start menu.\n" + e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }));
     }
 
     @FXML
@@ -55,21 +64,20 @@ public class login_Controller {
             return;
         }
 
-        if (dao.usernameExists(username)) {
-            showAlert(Alert.AlertType.ERROR, "Account Creation Failed",
-                    "That username is already taken.");
-            return;
-        }
-
-
-        boolean created = dao.register(username, password); // <-- raw password; DAO hashes it
-        if (created) {
-            showAlert(Alert.AlertType.INFORMATION, "Account Created",
-                    "Your account has been created. You can now log in.");
-        } else {
-            showAlert(Alert.AlertType.ERROR, "Account Creation Failed",
-                    "Could not create the account. Please try a different username.");
-        }
+        // one insert that also checks the name; the answer comes back off the FX thread
+        dao.registerAsync(username, password).whenComplete((created, err) -> Platform.runLater(() -> {
+            if (err != null) {
+                err.printStackTrace();
+                showAlert(Alert.AlertType.ERROR, "Account Creation Failed",
+                        "Could not create the account. Please try again.");
+            } else if (created) {
+                showAlert(Alert.AlertType.INFORMATION, "Account Created",
+                        "Your account has been created. You can now log in.");
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Account Creation Failed",
+                        "That username is already taken.");
+            }
+        }));
     }
 
     @FXML
@@ -1,28 +1,19 @@
 package app.demo;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
+// Legacy unsalted MD5, only kept so old accounts can still log in (and get
+// upgraded). New hashes come from PasswordHasher.
 public class passwordEncryption {
     public static String hashPassword(String password) {
-        String passwordToHash = password;
-        String generatedPassword = null;
         try {
             MessageDigest md = MessageDigest.getInstance("MD5");
-            md.update(passwordToHash.getBytes());
-            byte[] bytes = md.digest();
-
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < bytes.length; i++) {
-                sb.append(Integer.toString((bytes[i] & 0xff) + 0x100, 16).substring(1));
-
-            }
-            generatedPassword = sb.toString();
+            byte[] bytes = md.digest(password.getBytes());
+            return HexFormat.of().formatHex(bytes);
         } catch (NoSuchAlgorithmException e) {
             e.printStackTrace();
             return null;
         }
-        return generatedPassword;
-
-        }
     }
-
+}
@@ -0,0 +1,216 @@
+package core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running statistics for every instrument in a Market, updated from its tick
+ * listener in O(1) per instrument per tick (plus O(1) per tracked pair):
+ *
+ *  - an EMA of the price,
+ *  - mean and variance of the per-tick return over the last {@code window} ticks,
+ *    kept with Welford's update and its sliding-window form once the window is full,
+ *  - the running peak, current drawdown and worst drawdown,
+ *  - rolling correlation of returns for pairs asked for with trackPair().
+ *
+ * Returns sit in one flat ring (window slots per instrument), which is what lets
+ * the window slide without keeping any other history. Everything is stored as
+ * columns by PriceBook id, like the book itself.
+ *
+ * Not thread-safe: query it on the thread that ticks the market.
+ */
+public final class Analytics {
+    public static final int DEFAULT_WINDOW = 60;       // an in-game hour at one tick a minute
+    public static final int DEFAULT_EMA_TICKS = 20;
+
+    private final Market market;
+    private final int window;
+    private final double alpha;
+    private final java.util.function.Consumer<PriceBook> onTick = this::onTick;
+
+    private int cap = 0;
+    private int head = 0;                  // ring slot this tick writes, same for every instrument
+    private long ticks = 0;
+
+    // per instrument
+    private double[] ring = new double[0];     // cap * window returns
+    private int[] count = new int[0];          // samples in the window, up to window
+    private double[] mean = new double[0];
+    private double[] m2 = new double[0];       // sum of squared deviations from mean
+    private double[] ema = new double[0];
+    private double[] peak = new double[0];
+    private double[] maxDrawdown = new double[0];
+    private boolean[] seen = new boolean[0];
+    private double[] outgoing = new double[0];  // return that left the window this tick, for the pairs
+
+    // tracked pairs: their own means, M2s and co-moment, since a pair may start after its instruments
+    private final Map<Long, Integer> pairIds = new HashMap<>();
+    private int pairs = 0;
+    private int[] pairA = new int[4], pairB = new int[4], pairCount = new int[4];
+    private double[] pairMeanA = new double[4], pairMeanB = new double[4];
+    private double[] pairM2A = new double[4], pairM2B = new double[4], pairC = new double[4];
+
+    public Analytics(Market market) { this(market, DEFAULT_WINDOW, DEFAULT_EMA_TICKS); }
+
+    public Analytics(Market market, int window, int emaTicks) {
+        if (window < 2 || emaTicks < 1) throw new IllegalArgumentException("window must be >= 2 and emaTicks >= 1");
+        this.market = market;
+        this.window = window;
+        this.alpha = 2.0 / (emaTicks + 1);
+        ensure(market.book().size());
+        market.addTickListener(onTick);
+    }
+
+    /** Stop listening to the market; the numbers so far stay queryable. */
+    public void detach() { market.removeTickListener(onTick); }
+
+    public int window() { return window; }
+    public long ticks() { return ticks; }
+
+    // --- queries, by PriceBook id (see PriceBook.id for codes) ---
+
+    /** Returns in the window so far (the other stats are only meaningful once this is > 1). */
+    public int samples(int id) { return id < cap ? count[id] : 0; }
+    public double ema(int id) { return id < cap && seen[id] ? ema[id] : Double.NaN; }
+    /** How far price sits above (+) or below (-) its EMA, as a fraction. */
+    public double trend(int id) { return market.book().price(id) / ema(id) - 1.0; }
+    public double meanReturn(int id) { return samples(id) == 0 ? Double.NaN : mean[id]; }
+    /** Standard deviation of the per-tick return over the window. */
+    public double volatility(int id) {
+        int n = samples(id);
+        return n < 2 ? Double.NaN : Math.sqrt(Math.max(0, m2[id]) / (n - 1));
+    }
+    /** Fall from the running peak, 0 when at a high. */
+    public double drawdown(int id) {
+        return id < cap && seen[id] ? 1.0 - market.book().price(id) / peak[id] : 0;
+    }
+    public double maxDrawdown(int id) { return id < cap ? maxDrawdown[id] : 0; }
+
+    /**
+     * Start tracking the correlation of two instruments' returns; returns a
+     * handle for correlation(int). Tracking starts now, history isn't replayed.
+     */
+    public int trackPair(String codeA, String codeB) {
+        int a = market.book().id(codeA), b = market.book().id(codeB);
+        if (a < 0 || b < 0 || a == b) throw new IllegalArgumentException("Need two different known stocks: " + codeA + ", " + codeB);
+        long key = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        Integer existing = pairIds.get(key);
+        if (existing != null) return existing;
+        if (pairs == pairA.length) {
+            int n = pairs * 2;
+            pairA = Arrays.copyOf(pairA, n); pairB = Arrays.copyOf(pairB, n);
+            pairCount = Arrays.copyOf(pairCount, n);
+            pairMeanA = Arrays.copyOf(pairMeanA, n); pairMeanB = Arrays.copyOf(pairMeanB, n);
+            pairM2A = Arrays.copyOf(pairM2A, n); pairM2B = Arrays.copyOf(pairM2B, n);
+            pairC = Arrays.copyOf(pairC, n);
+        }
+        pairA[pairs] = a;
+        pairB[pairs] = b;
+        pairIds.put(key, pairs);
+        return pairs++;
+    }
+
+    public int pairCount() { return pairs; }
+    public int pairA(int pair) { return pairA[pair]; }
+    public int pairB(int pair) { return pairB[pair]; }
+
+    /** Pearson correlation of the pair's returns over the window, NaN until there are two samples. */
+    public double correlation(int pair) {
+        if (pairCount[pair] < 2) return Double.NaN;
+        double va = pairM2A[pair], vb = pairM2B[pair];
+        if (!(va > 0) || !(vb > 0)) return Double.NaN;
+        double c = pairC[pair] / Math.sqrt(va * vb);
+        return Math.max(-1, Math.min(1, c));
+    }
+
+    // --- updates ---
+
+    void onTick(PriceBook book) {
+        int n = book.size();
+        if (n > cap) ensure(n);
+        double[] price = book.prices(), last = book.lastPrices();
+        int slot = head;
+
+        for (int id = 0; id < n; id++) {
+            double p = price[id];
+            double r = last[id] > 0 ? p / last[id] - 1.0 : 0.0;
+            int at = id * window + slot;
+            double old = ring[at];
+            ring[at] = r;
+            outgoing[id] = old;
+
+            if (count[id] < window) {
+                int c = ++count[id];
+                double d = r - mean[id];
+                mean[id] += d / c;
+                m2[id] += d * (r - mean[id]);
+            } else {
+                // same count, r replaces old: M2' = M2 + (r - m)(r - m') - (old - m)(old - m')
+                double m = mean[id];
+                double m1 = m + (r - old) / window;
+                m2[id] += (r - m) * (r - m1) - (old - m) * (old - m1);
+                mean[id] = m1;
+            }
+
+            if (!seen[id]) {
+                seen[id] = true;
+                ema[id] = p;
+                peak[id] = p;
+            } else {
+                ema[id] += alpha * (p - ema[id]);
+                if (p > peak[id]) peak[id] = p;
+            }
+            double dd = 1.0 - p / peak[id];
+            if (dd > maxDrawdown[id]) maxDrawdown[id] = dd;
+        }
+
+        for (int k = 0; k < pairs; k++) updatePair(k, slot);
+
+        head = slot + 1 == window ? 0 : slot + 1;
+        ticks++;
+    }
+
+    // co-moment C = sum (a - meanA)(b - meanB), same Welford / sliding forms as M2
+    private void updatePair(int k, int slot) {
+        int a = pairA[k], b = pairB[k];
+        double x = ring[a * window + slot], y = ring[b * window + slot];
+        double ma = pairMeanA[k], mb = pairMeanB[k];
+        double ma1, mb1;
+        if (pairCount[k] < window) {
+            int c = ++pairCount[k];
+            ma1 = ma + (x - ma) / c;
+            mb1 = mb + (y - mb) / c;
+            pairM2A[k] += (x - ma) * (x - ma1);
+            pairM2B[k] += (y - mb) * (y - mb1);
+            pairC[k] += (x - ma) * (y - mb1);
+        } else {
+            // the window was full, so what just left the ring was this pair's oldest sample
+            double xo = outgoing[a], yo = outgoing[b];
+            ma1 = ma + (x - xo) / window;
+            mb1 = mb + (y - yo) / window;
+            pairM2A[k] += (x - ma) * (x - ma1) - (xo - ma) * (xo - ma1);
+            pairM2B[k] += (y - mb) * (y - mb1) - (yo - mb) * (yo - mb1);
+            pairC[k] += (x - ma) * (y - mb1) - (xo - ma) * (yo - mb1);
+        }
+        pairMeanA[k] = ma1;
+        pairMeanB[k] = mb1;
+    }
+
+    private void ensure(int n) {
+        if (n <= cap) return;
+        int newCap = Math.max(n, Math.max(8, cap * 2));
+        double[] r = new double[newCap * window];
+        System.arraycopy(ring, 0, r, 0, ring.length);   // rows are id * window, so they stay put
+        ring = r;
+        count = Arrays.copyOf(count, newCap);
+        mean = Arrays.copyOf(mean, newCap);
+        m2 = Arrays.copyOf(m2, newCap);
+        ema = Arrays.copyOf(ema, newCap);
+        peak = Arrays.copyOf(peak, newCap);
+        maxDrawdown = Arrays.copyOf(maxDrawdown, newCap);
+        seen = Arrays.copyOf(seen, newCap);
+        outgoing = Arrays.copyOf(outgoing, newCap);
+        cap = newCap;
+    }
+}
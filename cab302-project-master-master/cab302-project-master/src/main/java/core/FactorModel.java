@@ -0,0 +1,137 @@
+package core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Sector / commodity factors on top of the uniform tick, e.g. iron and bhp
+ * both loading on "steel" so they move together.
+ *
+ * Once per tick (beginTick) we draw K standard normals z, turn them into
+ * correlated factor moves with the Cholesky factor L of the correlation matrix,
+ * and add each factor's event shift:
+ *
+ *     move[k] = vol[k] * (L z)[k] + shift[k]          (pct, like shiftPct)
+ *
+ * apply() then adds loadings * move (one n x K matrix-vector product) to each
+ * row's shiftPct for the duration of the base kernel, so the base scalar or
+ * vector kernel still does the price update and the idiosyncratic part stays
+ * the usual uniform draw. The shifts are copied back afterwards rather than
+ * subtracted, so event shifts never pick up rounding drift.
+ *
+ * Events target a factor by using its name as EventDef.stockCode; see
+ * Market.addShift.
+ */
+public final class FactorModel implements TickKernel {
+    private final String[] names;
+    private final Map<String, Integer> byName = new HashMap<>();
+    private final int k;
+    private final double[] vol;      // pct per tick, std dev of each factor's random part
+    private final double[] chol;     // k x k lower-triangular, row-major
+    private final double[] shift;    // event shifts per factor, pct
+    private final double[] move;     // this tick's factor moves
+    private final double[] z;
+    private final TickKernel base;
+
+    private double[] loadings = new double[0];   // rows of k, by PriceBook id
+    private double[] savedShift = new double[0];
+
+    public FactorModel(String[] names, double[] vol, double[][] correlation) {
+        this(names, vol, correlation, TickKernels.defaultKernel());
+    }
+
+    public FactorModel(String[] names, double[] vol, double[][] correlation, TickKernel base) {
+        k = names.length;
+        if (vol.length != k || correlation.length != k) throw new IllegalArgumentException("names, vol and correlation must have the same size");
+        this.names = names.clone();
+        for (int f = 0; f < k; f++) byName.put(names[f].toLowerCase(), f);
+        this.vol = vol.clone();
+        this.chol = cholesky(correlation, k);
+        this.shift = new double[k];
+        this.move = new double[k];
+        this.z = new double[k];
+        this.base = base;
+    }
+
+    public int size() { return k; }
+    public String name(int factor) { return names[factor]; }
+
+    /** Factor index by name (case-insensitive), or -1. */
+    public int factor(String name) {
+        Integer f = byName.get(name.toLowerCase());
+        return f == null ? -1 : f;
+    }
+
+    /** How much of the factor's move an instrument takes, e.g. 1.0 for iron on steel. */
+    public void setLoading(int id, int factor, double beta) {
+        ensure(id + 1);
+        loadings[id * k + factor] = beta;
+    }
+
+    public double loading(int id, int factor) {
+        int at = id * k + factor;
+        return at < loadings.length ? loadings[at] : 0;
+    }
+
+    public double shift(int factor) { return shift[factor]; }
+    public void setShift(int factor, double pct) { shift[factor] = pct; }
+    public void addShift(int factor, double deltaPct) { shift[factor] += deltaPct; }
+
+    /** The move each factor made on the last tick, in pct. */
+    public double lastMove(int factor) { return move[factor]; }
+
+    @Override
+    public void beginTick(PriceBook book, RandomGenerator rng) {
+        ensure(book.size());
+        for (int j = 0; j < k; j++) z[j] = rng.nextGaussian();
+        for (int f = 0; f < k; f++) {
+            double m = 0;
+            int row = f * k;
+            for (int j = 0; j <= f; j++) m += chol[row + j] * z[j];
+            move[f] = vol[f] * m + shift[f];
+        }
+    }
+
+    // rows in [from, to) are only touched by this call, so shards can run it in parallel
+    @Override
+    public void apply(PriceBook book, double[] uniforms, int from, int to) {
+        double[] shiftPct = book.shiftPcts();
+        System.arraycopy(shiftPct, from, savedShift, from, to - from);
+        for (int i = from; i < to; i++) {
+            double d = 0;
+            int row = i * k;
+            for (int f = 0; f < k; f++) d += loadings[row + f] * move[f];
+            shiftPct[i] += d;
+        }
+        base.apply(book, uniforms, from, to);
+        System.arraycopy(savedShift, from, shiftPct, from, to - from);
+    }
+
+    private void ensure(int n) {
+        if (savedShift.length >= n && loadings.length >= n * k) return;
+        int cap = Math.max(n, savedShift.length * 2);
+        loadings = Arrays.copyOf(loadings, cap * k);
+        savedShift = new double[cap];
+    }
+
+    // correlation = L L^T; fails if the matrix isn't a valid (positive definite) correlation matrix
+    private static double[] cholesky(double[][] c, int k) {
+        double[] l = new double[k * k];
+        for (int i = 0; i < k; i++) {
+            if (c[i].length != k) throw new IllegalArgumentException("correlation must be square");
+            for (int j = 0; j <= i; j++) {
+                double sum = c[i][j];
+                for (int p = 0; p < j; p++) sum -= l[i * k + p] * l[j * k + p];
+                if (i == j) {
+                    if (!(sum > 0)) throw new IllegalArgumentException("correlation matrix is not positive definite");
+                    l[i * k + i] = Math.sqrt(sum);
+                } else {
+                    l[i * k + j] = sum / l[j * k + j];
+                }
+            }
+        }
+        return l;
+    }
+}
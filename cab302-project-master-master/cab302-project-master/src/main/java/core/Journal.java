@@ -0,0 +1,229 @@
+package core;
+
+import events.EventChange;
+import events.EventEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary log of everything that moves the market: every price tick
+ * and every event starting, ending or being reverted at end of day, including
+ * events aimed at a FactorModel factor. Replay it with JournalReader.
+ *
+ * Records are a fixed 48 bytes, written straight into memory-mapped segment
+ * files (journal-<first seq>.seg) that roll over when full:
+ *
+ *   0  long   seq        1, 2, 3, ... across all segments
+ *   8  long   timeMs     clock when written
+ *   16 int    kind       TICK, SHIFT, EVENT_*, FACTOR_*
+ *   20 int    id         PriceBook instrument id (FACTOR_*: factor index in the market's FactorModel)
+ *   24 double a          TICK: price          SHIFT: shiftPct   EVENT_*: shift applied (+/-)
+ *   32 double b          TICK: lastPrice      SHIFT: 0          EVENT_*: event durationMs
+ *                        FACTOR_SHIFT and FACTOR_EVENT_* are SHIFT and EVENT_* for a factor
+ *   40 int    crc        CRC32C of bytes 0..39
+ *   44 int    0
+ *
+ * A record that fails its CRC (a torn write after a crash) marks the end of the
+ * journal. Instrument codes and ranges aren't journaled: replay into a Market
+ * set up with the same instruments in the same order (ids are insertion order)
+ * and, if factor events were journaled, the same factors.
+ *
+ * Appends are serialised on the journal itself: with attach(), ticks arrive on
+ * the thread that ticks the market and event changes on the engine's own
+ * thread once EventEngine.start() has run, so both can write at once.
+ */
+public final class Journal implements AutoCloseable {
+    public static final int RECORD_SIZE = 48;
+    public static final int HEADER_SIZE = 16;
+    static final int CRC_BYTES = 40;   // everything before the crc field
+    static final long MAGIC = 0x4D4B544A524E4C31L;   // "MKTJRNL1"
+    public static final long DEFAULT_SEGMENT_BYTES = 16L << 20;
+
+    public static final int TICK = 1;
+    public static final int SHIFT = 2;
+    public static final int EVENT_STARTED = 3;
+    public static final int EVENT_ENDED = 4;
+    public static final int EVENT_REVERTED = 5;
+    public static final int FACTOR_SHIFT = 6;
+    public static final int FACTOR_EVENT_STARTED = 7;
+    public static final int FACTOR_EVENT_ENDED = 8;
+    public static final int FACTOR_EVENT_REVERTED = 9;
+
+    private final Path dir;
+    private final int recordsPerSegment;
+    private final LongSupplier clock;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int slot;            // next record index in the current segment
+    private long nextSeq = 1;
+
+    // one record is built here, checksummed, then copied into the mapping
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer rec = ByteBuffer.wrap(scratch).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+
+    public Journal(Path dir, LongSupplier clock) {
+        this(dir, DEFAULT_SEGMENT_BYTES, clock);
+    }
+
+    /** Opens (or creates) a journal directory and carries on after its last good record. */
+    public Journal(Path dir, long segmentBytes, LongSupplier clock) {
+        if (segmentBytes < HEADER_SIZE + RECORD_SIZE) throw new IllegalArgumentException("segment too small");
+        this.dir = dir;
+        this.recordsPerSegment = (int) Math.min(Integer.MAX_VALUE, (segmentBytes - HEADER_SIZE) / RECORD_SIZE);
+        this.clock = clock;
+        try {
+            Files.createDirectories(dir);
+            List<Path> segs = JournalReader.segments(dir);
+            if (segs.isEmpty()) {
+                roll();
+            } else {
+                // reopen the last segment and find where its good records stop
+                Path last = segs.get(segs.size() - 1);
+                long first = JournalReader.firstSeq(last);
+                map(last);
+                slot = JournalReader.countValid(segment, first, capacityOf(segment));
+                nextSeq = first + slot;
+                if (slot == capacityOf(segment)) roll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Journal every tick of this market and every change from this engine (either may be null). */
+    public void attach(Market market, EventEngine engine) {
+        if (market != null) market.addTickListener(this::ticked);
+        if (engine != null) engine.addChangeListener(c -> eventChanged(market, c));
+    }
+
+    /** Sequence number the next record will get. */
+    public synchronized long nextSeq() { return nextSeq; }
+
+    /** Write the market's current state, factor shifts included, so replay can start from here. */
+    public synchronized void checkpoint(Market market) {
+        checkpoint(market.book());
+        FactorModel fm = market.factors();
+        if (fm == null) return;
+        for (int f = 0; f < fm.size(); f++) append(FACTOR_SHIFT, f, fm.shift(f), 0);
+    }
+
+    /** Write the whole book's current state, so replay can start from here. */
+    public synchronized void checkpoint(PriceBook book) {
+        for (int id = 0; id < book.size(); id++) {
+            append(TICK, id, book.price(id), book.lastPrice(id));
+            append(SHIFT, id, book.shiftPct(id), 0);
+        }
+    }
+
+    public synchronized void ticked(PriceBook book) {
+        double[] price = book.prices();
+        double[] last = book.lastPrices();
+        for (int id = 0, n = book.size(); id < n; id++) append(TICK, id, price[id], last[id]);
+    }
+
+    // resolves the code the way Market.addShift does: a stock first, then a factor
+    private void eventChanged(Market market, EventChange c) {
+        if (market == null) return;
+        String code = c.event.def.stockCode;
+        double shift = c.event.def.shiftPct;
+        int duration = c.event.def.durationMs;
+        int id = market.book().id(code);
+        if (id >= 0) {
+            switch (c.kind) {
+                case STARTED -> append(EVENT_STARTED, id, shift, duration);
+                case ENDED -> append(EVENT_ENDED, id, -shift, duration);
+                case REVERTED -> append(EVENT_REVERTED, id, -shift, duration);
+            }
+            return;
+        }
+        int f = market.factors() == null ? -1 : market.factors().factor(code);
+        if (f < 0) {
+            // the engine only starts events whose code it could shift, so this means the market changed under it
+            System.out.println("[JOURNAL] event on unknown code " + code + " not journaled");
+            return;
+        }
+        switch (c.kind) {
+            case STARTED -> append(FACTOR_EVENT_STARTED, f, shift, duration);
+            case ENDED -> append(FACTOR_EVENT_ENDED, f, -shift, duration);
+            case REVERTED -> append(FACTOR_EVENT_REVERTED, f, -shift, duration);
+        }
+    }
+
+    /** Append one record and return its sequence number. */
+    public synchronized long append(int kind, int id, double a, double b) {
+        if (slot == capacityOf(segment)) roll();
+        long seq = nextSeq++;
+        rec.putLong(0, seq);
+        rec.putLong(8, clock.getAsLong());
+        rec.putInt(16, kind);
+        rec.putInt(20, id);
+        rec.putDouble(24, a);
+        rec.putDouble(32, b);
+        crc.reset();
+        crc.update(scratch, 0, CRC_BYTES);
+        rec.putInt(CRC_BYTES, (int) crc.getValue());
+        rec.putInt(44, 0);
+        segment.put(HEADER_SIZE + slot * RECORD_SIZE, scratch, 0, RECORD_SIZE);
+        slot++;
+        return seq;
+    }
+
+    /** Push written records to disk (the OS does this eventually anyway). */
+    public synchronized void force() {
+        if (segment != null) segment.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        try {
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        channel = null;
+        segment = null;
+    }
+
+    private static int capacityOf(MappedByteBuffer seg) {
+        return (seg.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    // start a new segment named after the first seq it will hold
+    private void roll() {
+        try {
+            if (segment != null) close();
+            Path file = dir.resolve(JournalReader.segmentName(nextSeq));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            segment.putLong(0, MAGIC);
+            segment.putInt(8, RECORD_SIZE);
+            segment.putInt(12, 0);
+            slot = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        if (segment.getLong(0) != MAGIC) throw new IOException("Not a journal segment: " + file);
+    }
+}
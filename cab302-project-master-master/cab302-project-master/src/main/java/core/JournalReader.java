@@ -0,0 +1,148 @@
+package core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads a Journal back, in sequence order, stopping at the first missing or
+ * corrupt record. replay() rebuilds a Market's prices and shifts (factor
+ * shifts too) as they were right after a given sequence number.
+ */
+public final class JournalReader {
+
+    /** Gets each record's fields; see Journal for what a and b mean per kind. */
+    public interface Visitor {
+        void record(long seq, long timeMs, int kind, int id, double a, double b);
+    }
+
+    private final Path dir;
+
+    public JournalReader(Path dir) {
+        this.dir = dir;
+    }
+
+    /** Visit records fromSeq..toSeq (inclusive). Returns the last seq visited, or fromSeq - 1 if none. */
+    public long read(long fromSeq, long toSeq, Visitor v) {
+        long last = fromSeq - 1;
+        try {
+            List<Path> segs = segments(dir);
+            for (int i = 0; i < segs.size(); i++) {
+                long first = firstSeq(segs.get(i));
+                if (first > toSeq) break;
+                // skip whole segments that end before fromSeq
+                if (i + 1 < segs.size() && firstSeq(segs.get(i + 1)) <= fromSeq) continue;
+
+                MappedByteBuffer seg = mapReadOnly(segs.get(i));
+                int cap = (seg.capacity() - Journal.HEADER_SIZE) / Journal.RECORD_SIZE;
+                int valid = countValid(seg, first, cap);
+                int start = (int) Math.max(0, fromSeq - first);
+                for (int slot = start; slot < valid; slot++) {
+                    long seq = first + slot;
+                    if (seq > toSeq) return last;
+                    int at = Journal.HEADER_SIZE + slot * Journal.RECORD_SIZE;
+                    v.record(seq, seg.getLong(at + 8), seg.getInt(at + 16), seg.getInt(at + 20),
+                            seg.getDouble(at + 24), seg.getDouble(at + 32));
+                    last = seq;
+                }
+                if (valid < cap) break;   // torn or unfinished segment: nothing valid after it
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return last;
+    }
+
+    /** Last good sequence number in the journal (0 if empty). */
+    public long lastSeq() {
+        return read(1, Long.MAX_VALUE, (seq, t, kind, id, a, b) -> {});
+    }
+
+    /**
+     * Apply records 1..uptoSeq to the market's book. The market must hold the same
+     * instruments the journal was written with, in the same order. Returns the last
+     * seq applied.
+     */
+    public long replay(Market market, long uptoSeq) {
+        PriceBook book = market.book();
+        FactorModel fm = market.factors();
+        return read(1, uptoSeq, (seq, t, kind, id, a, b) -> {
+            if (kind >= Journal.FACTOR_SHIFT) {
+                if (fm == null || id < 0 || id >= fm.size()) return;
+                switch (kind) {
+                    case Journal.FACTOR_SHIFT -> fm.setShift(id, a);
+                    case Journal.FACTOR_EVENT_STARTED, Journal.FACTOR_EVENT_ENDED, Journal.FACTOR_EVENT_REVERTED -> fm.addShift(id, a);
+                    default -> { }
+                }
+                return;
+            }
+            if (id < 0 || id >= book.size()) return;
+            switch (kind) {
+                case Journal.TICK -> {
+                    book.setPrice(id, a);
+                    book.setLastPrice(id, b);
+                }
+                case Journal.SHIFT -> book.setShiftPct(id, a);
+                case Journal.EVENT_STARTED, Journal.EVENT_ENDED, Journal.EVENT_REVERTED -> book.addShift(id, a);
+                default -> { }
+            }
+        });
+    }
+
+    // helpers shared with Journal
+
+    static String segmentName(long firstSeq) {
+        return String.format("journal-%019d.seg", firstSeq);
+    }
+
+    static long firstSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".seg".length()));
+    }
+
+    static List<Path> segments(Path dir) throws IOException {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return out;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> {
+                String n = p.getFileName().toString();
+                return n.startsWith("journal-") && n.endsWith(".seg");
+            }).forEach(out::add);
+        }
+        out.sort((x, y) -> Long.compare(firstSeq(x), firstSeq(y)));
+        return out;
+    }
+
+    // number of records from the start of the segment with the right seq and a good CRC
+    static int countValid(MappedByteBuffer seg, long firstSeq, int cap) {
+        byte[] buf = new byte[Journal.CRC_BYTES];
+        CRC32C crc = new CRC32C();
+        for (int slot = 0; slot < cap; slot++) {
+            int at = Journal.HEADER_SIZE + slot * Journal.RECORD_SIZE;
+            if (seg.getLong(at) != firstSeq + slot) return slot;
+            seg.get(at, buf, 0, buf.length);
+            crc.reset();
+            crc.update(buf, 0, buf.length);
+            if ((int) crc.getValue() != seg.getInt(at + Journal.CRC_BYTES)) return slot;
+        }
+        return cap;
+    }
+
+    private static MappedByteBuffer mapReadOnly(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer seg = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            seg.order(ByteOrder.LITTLE_ENDIAN);
+            if (seg.getLong(0) != Journal.MAGIC) throw new IOException("Not a journal segment: " + file);
+            return seg;
+        }
+    }
+}
@@ -3,17 +3,75 @@ package core;
 import app.demo.Stock;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 // mainly for the panel, this will change with javafx
 public final class Market {
     private final List<Stock> list = new ArrayList<>();
     private final Map<String, Stock> byCode = new HashMap<>();
+    private final PriceBook book = new PriceBook();
+    // told after every tick, e.g. core.Journal
+    private final List<Consumer<PriceBook>> tickListeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private FactorModel factors;   // null = every stock moves on its own
 
-    public void add(Stock s) { list.add(s); byCode.put(s.code, s); }
+    public void add(Stock s) { s.bindTo(book); list.add(s); byCode.put(s.code, s); }
     public List<Stock> list() { return list; }
     public Stock get(String code) { return byCode.get(code); }
+    public PriceBook book() { return book; }
+
+    /** Move stocks through sector factors from now on (installs the model as the book's kernel). */
+    public void setFactorModel(FactorModel model) {
+        this.factors = model;
+        book.setKernel(model != null ? model : TickKernels.defaultKernel());
+    }
+    public FactorModel factors() { return factors; }
+
+    /** True if an event can aim at this code: a stock, or a factor name when there's a model. */
+    public boolean hasTarget(String code) {
+        return byCode.containsKey(code) || (factors != null && factors.factor(code) >= 0);
+    }
+
+    /**
+     * Held while shifts or prices change: the event engine shifts from its own
+     * thread, and the FactorModel writes and restores shiftPct during a tick.
+     * Hold it to read prices and shifts as one consistent picture, e.g. for a save.
+     */
+    public Object lock() { return book; }
+
+    /** Shift a stock, or every stock loading on a factor. False if the code is neither. */
+    public boolean addShift(String code, double deltaPct) {
+        synchronized (lock()) {
+            Stock s = byCode.get(code);
+            if (s != null) {
+                s.addShift(deltaPct);
+                return true;
+            }
+            int f = factors == null ? -1 : factors.factor(code);
+            if (f < 0) return false;
+            factors.addShift(f, deltaPct);
+            return true;
+        }
+    }
+
+    public void addTickListener(Consumer<PriceBook> l) { tickListeners.add(l); }
+    public void removeTickListener(Consumer<PriceBook> l) { tickListeners.remove(l); }
 
     public void tickAll(Random rng) {
-        for (Stock s : list) s.tick(rng);
+        synchronized (lock()) {
+            book.tickAll(rng);
+        }
+        fireTicked();
+    }
+
+    // parallel, reproducible alternative for large markets (see ShardedTicker)
+    public void tickAll(ShardedTicker ticker) {
+        synchronized (lock()) {
+            ticker.tick(book);
+        }
+        fireTicked();
+    }
+
+    private void fireTicked() {
+        for (Consumer<PriceBook> l : tickListeners) l.accept(book);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The player's market and limit orders against one Market.
+ *
+ * Market orders fill straight away at the current price. Limit orders rest
+ * until a tick crosses them: a buy fills once price <= limit, a sell once
+ * price >= limit, both at the tick's price. Resting orders live in a
+ * PriceLevels per instrument and side, so a tick finds what crossed with one
+ * binary search per instrument that has orders (tracked in a BitSet) instead
+ * of looking at every order - thousands of resting orders cost next to
+ * nothing when nothing crosses.
+ *
+ * Registered as a Market tick listener; like Portfolio it isn't thread-safe,
+ * so place and cancel orders on the thread that ticks the market.
+ */
+public final class OrderBook {
+    public enum Side { BUY, SELL }
+    public enum Status { OPEN, FILLED, CANCELLED, REJECTED }
+
+    public static final class Order {
+        public final long id;
+        public final int instrument;       // PriceBook id
+        public final String code;
+        public final Side side;
+        public final long qty;
+        public final double limit;         // NaN for a market order
+        private Status status = Status.OPEN;
+        private double fillPrice = Double.NaN;
+
+        private Order(long id, int instrument, String code, Side side, long qty, double limit) {
+            this.id = id;
+            this.instrument = instrument;
+            this.code = code;
+            this.side = side;
+            this.qty = qty;
+            this.limit = limit;
+        }
+
+        public Status status() { return status; }
+        public double fillPrice() { return fillPrice; }
+        public boolean isLimit() { return !Double.isNaN(limit); }
+
+        // a buy rests at key = limit and a sell at -limit, see PriceLevels
+        private double key() { return side == Side.BUY ? limit : -limit; }
+    }
+
+    private final Market market;
+    private final PriceBook book;
+    private final Portfolio portfolio;
+    private final Consumer<PriceBook> onTick = this::onTick;
+
+    private PriceLevels[] buys = new PriceLevels[0];
+    private PriceLevels[] sells = new PriceLevels[0];
+    private final BitSet resting = new BitSet();          // instruments with any resting order
+    private final Map<Long, Order> open = new HashMap<>();
+    private long nextId = 1;
+
+    // told about every fill, on the ticking thread
+    private final List<Consumer<Order>> fillListeners = new CopyOnWriteArrayList<>();
+
+    public OrderBook(Market market, Portfolio portfolio) {
+        this.market = market;
+        this.book = market.book();
+        this.portfolio = portfolio;
+        market.addTickListener(onTick);
+    }
+
+    public Portfolio portfolio() { return portfolio; }
+
+    public void addFillListener(Consumer<Order> l) { fillListeners.add(l); }
+    public void removeFillListener(Consumer<Order> l) { fillListeners.remove(l); }
+
+    /** Stop matching on ticks. Resting orders stay where they are. */
+    public void detach() { market.removeTickListener(onTick); }
+
+    /** Buy or sell now at the current price. Rejected if there isn't the cash or the shares. */
+    public Order marketOrder(String code, Side side, long qty) {
+        Order o = newOrder(code, side, qty, Double.NaN);
+        double price = book.price(o.instrument);
+        boolean ok = side == Side.BUY
+                ? portfolio.availableCash() >= qty * price
+                : portfolio.availableShares(o.instrument) >= qty;
+        if (!ok) {
+            o.status = Status.REJECTED;
+            return o;
+        }
+        fill(o, price);
+        return o;
+    }
+
+    /**
+     * Rest an order until the price crosses {@code limit}. The cash (limit * qty)
+     * or shares are reserved now; rejected if there isn't enough of either.
+     * An order that already crosses fills on the next tick.
+     */
+    public Order limitOrder(String code, Side side, long qty, double limit) {
+        if (!(limit > 0)) throw new IllegalArgumentException("limit must be positive: " + limit);
+        Order o = newOrder(code, side, qty, limit);
+        int id = o.instrument;
+        if (side == Side.BUY) {
+            if (portfolio.availableCash() < qty * limit) { o.status = Status.REJECTED; return o; }
+            portfolio.reserveCash(qty * limit);
+        } else {
+            if (portfolio.availableShares(id) < qty) { o.status = Status.REJECTED; return o; }
+            portfolio.reserveShares(id, qty);
+        }
+        levels(id, side).insert(o.key(), o.id);
+        resting.set(id);
+        open.put(o.id, o);
+        return o;
+    }
+
+    /** Cancel a resting order and release what it reserved. False if it already filled or isn't ours. */
+    public boolean cancel(long orderId) {
+        Order o = open.remove(orderId);
+        if (o == null) return false;
+        PriceLevels lv = levels(o.instrument, o.side);
+        lv.remove(o.key(), o.id);
+        if (buys[o.instrument].size() == 0 && sells[o.instrument].size() == 0) resting.clear(o.instrument);
+        release(o);
+        o.status = Status.CANCELLED;
+        return true;
+    }
+
+    public Collection<Order> openOrders() { return new ArrayList<>(open.values()); }
+    public int openCount() { return open.size(); }
+
+    // Each tick: only instruments with resting orders, one binary search per side.
+    void onTick(PriceBook b) {
+        double[] price = b.prices();
+        for (int id = resting.nextSetBit(0); id >= 0; id = resting.nextSetBit(id + 1)) {
+            double p = price[id];
+            match(buys[id], p, p);      // buy limits >= p have crossed
+            match(sells[id], -p, p);    // sell limits <= p, i.e. -limit >= -p
+            if (buys[id].size() == 0 && sells[id].size() == 0) resting.clear(id);
+        }
+    }
+
+    // fill the crossed suffix oldest-first within a level, best limit first
+    private void match(PriceLevels lv, double key, double price) {
+        int from = lv.lowerBound(key);
+        int n = lv.size();
+        if (from == n) return;
+        for (int i = n - 1; i >= from; i--) {
+            Order o = open.remove(lv.id(i));
+            release(o);
+            fill(o, price);
+        }
+        lv.truncate(from);
+    }
+
+    private void fill(Order o, double price) {
+        if (o.side == Side.BUY) portfolio.bought(o.instrument, o.qty, price);
+        else portfolio.sold(o.instrument, o.qty, price);
+        o.fillPrice = price;
+        o.status = Status.FILLED;
+        for (Consumer<Order> l : fillListeners) l.accept(o);
+    }
+
+    private void release(Order o) {
+        if (o.side == Side.BUY) portfolio.releaseCash(o.qty * o.limit);
+        else portfolio.releaseShares(o.instrument, o.qty);
+    }
+
+    private Order newOrder(String code, Side side, long qty, double limit) {
+        if (qty <= 0) throw new IllegalArgumentException("qty must be positive: " + qty);
+        int id = book.id(code);
+        if (id < 0) throw new IllegalArgumentException("Unknown stock: " + code);
+        return new Order(nextId++, id, code, side, qty, limit);
+    }
+
+    private PriceLevels levels(int id, Side side) {
+        if (id >= buys.length) {
+            int cap = Math.max(id + 1, buys.length * 2);
+            int old = buys.length;
+            buys = Arrays.copyOf(buys, cap);
+            sells = Arrays.copyOf(sells, cap);
+            for (int i = old; i < cap; i++) {
+                buys[i] = new PriceLevels();
+                sells[i] = new PriceLevels();
+            }
+        }
+        return side == Side.BUY ? buys[id] : sells[id];
+    }
+}
@@ -0,0 +1,82 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * The player's cash and share positions, one row per PriceBook id.
+ *
+ * Cash and shares held back for open orders are "reserved": a resting buy
+ * reserves limit * qty of cash and a resting sell reserves its shares, so a
+ * fill can never overdraw and the same money can't back two orders.
+ * Changed by OrderBook; not thread-safe, use it from the thread that ticks the market.
+ */
+public final class Portfolio {
+    private double cash;
+    private double reservedCash;
+
+    private long[] qty = new long[16];
+    private long[] reservedQty = new long[16];
+    private double[] avgCost = new double[16];   // average price paid per share held
+
+    public Portfolio(double cash) {
+        this.cash = cash;
+    }
+
+    public double cash() { return cash; }
+    /** Cash not tied up in open buy orders. */
+    public double availableCash() { return cash - reservedCash; }
+    public void deposit(double amount) { cash += amount; }
+
+    public long position(int id) { return id < qty.length ? qty[id] : 0; }
+    public long availableShares(int id) { return position(id) - (id < reservedQty.length ? reservedQty[id] : 0); }
+    public double avgCost(int id) { return id < avgCost.length ? avgCost[id] : 0; }
+
+    /** Shares at today's prices. */
+    public double holdingsValue(PriceBook book) {
+        double[] price = book.prices();
+        int n = Math.min(book.size(), qty.length);
+        double v = 0;
+        for (int id = 0; id < n; id++) if (qty[id] != 0) v += qty[id] * price[id];
+        return v;
+    }
+
+    public double netWorth(PriceBook book) { return cash + holdingsValue(book); }
+
+    /** Used when loading a save; open orders aren't saved, so nothing is reserved. */
+    public void setPosition(int id, long shares, double averageCost) {
+        ensure(id);
+        qty[id] = shares;
+        avgCost[id] = shares == 0 ? 0 : averageCost;
+    }
+
+    // OrderBook's side
+
+    void reserveCash(double amount) { reservedCash += amount; }
+    void releaseCash(double amount) { reservedCash = Math.max(0, reservedCash - amount); }
+
+    void reserveShares(int id, long n) { ensure(id); reservedQty[id] += n; }
+    void releaseShares(int id, long n) { ensure(id); reservedQty[id] -= n; }
+
+    void bought(int id, long n, double price) {
+        ensure(id);
+        double cost = n * price;
+        avgCost[id] = (avgCost[id] * qty[id] + cost) / (qty[id] + n);
+        qty[id] += n;
+        cash -= cost;
+    }
+
+    void sold(int id, long n, double price) {
+        ensure(id);
+        qty[id] -= n;
+        if (qty[id] == 0) avgCost[id] = 0;
+        cash += n * price;
+    }
+
+    private void ensure(int id) {
+        if (id < qty.length) return;
+        int cap = Math.max(id + 1, qty.length * 2);
+        qty = Arrays.copyOf(qty, cap);
+        reservedQty = Arrays.copyOf(reservedQty, cap);
+        avgCost = Arrays.copyOf(avgCost, cap);
+    }
+}
@@ -0,0 +1,122 @@
+package core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * Column storage for every instrument's price state. Each instrument gets an
+ * int id when it is added, and its values live at that index in plain
+ * double arrays, so a market tick is one pass over contiguous memory.
+ * app.demo.Stock is just a view onto one row.
+ */
+public final class PriceBook {
+    // guardrail, same as the old per-Stock tick
+    public static final double MIN_PRICE = 0.01;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] codes;
+    private double[] price;
+    private double[] lastPrice;
+    private double[] minPct;
+    private double[] maxPct;
+    private double[] shiftPct;
+    private int size = 0;
+
+    // per-tick scratch: one uniform draw per instrument, filled in bulk before the kernel runs
+    private double[] uniforms;
+    private TickKernel kernel = TickKernels.defaultKernel();
+
+    public PriceBook() { this(16); }
+
+    public PriceBook(int initialCapacity) {
+        int cap = Math.max(1, initialCapacity);
+        codes = new String[cap];
+        price = new double[cap];
+        lastPrice = new double[cap];
+        minPct = new double[cap];
+        maxPct = new double[cap];
+        shiftPct = new double[cap];
+        uniforms = new double[cap];
+    }
+
+    /** Register an instrument and return its id. Ids are handed out in insertion order. */
+    public int add(String code, double initialPrice, double baseMinPct, double baseMaxPct) {
+        if (ids.containsKey(code)) throw new IllegalArgumentException("Duplicate instrument: " + code);
+        if (size == codes.length) grow();
+        int id = size++;
+        codes[id] = code;
+        price[id] = initialPrice;
+        lastPrice[id] = initialPrice;
+        minPct[id] = baseMinPct;
+        maxPct[id] = baseMaxPct;
+        shiftPct[id] = 0.0;
+        ids.put(code, id);
+        return id;
+    }
+
+    private void grow() {
+        int cap = codes.length * 2;
+        codes = Arrays.copyOf(codes, cap);
+        price = Arrays.copyOf(price, cap);
+        lastPrice = Arrays.copyOf(lastPrice, cap);
+        minPct = Arrays.copyOf(minPct, cap);
+        maxPct = Arrays.copyOf(maxPct, cap);
+        shiftPct = Arrays.copyOf(shiftPct, cap);
+        uniforms = new double[cap];
+    }
+
+    /** Instrument id for a code, or -1 if unknown. */
+    public int id(String code) {
+        Integer id = ids.get(code);
+        return id == null ? -1 : id;
+    }
+
+    public int size() { return size; }
+    public TickKernel kernel() { return kernel; }
+    public void setKernel(TickKernel kernel) { this.kernel = kernel; }
+    public String code(int id) { return codes[id]; }
+
+    public double price(int id) { return price[id]; }
+    public double lastPrice(int id) { return lastPrice[id]; }
+    public double minPct(int id) { return minPct[id]; }
+    public double maxPct(int id) { return maxPct[id]; }
+    public double shiftPct(int id) { return shiftPct[id]; }
+
+    public void setPrice(int id, double p) { price[id] = p; }
+    public void setLastPrice(int id, double p) { lastPrice[id] = p; }
+    public void setShiftPct(int id, double pct) { shiftPct[id] = pct; }
+    public void addShift(int id, double deltaPct) { shiftPct[id] += deltaPct; }
+
+    // Raw columns for bulk kernels. Only valid until the next add() (arrays may be regrown).
+    public double[] prices() { return price; }
+    public double[] lastPrices() { return lastPrice; }
+    public double[] minPcts() { return minPct; }
+    public double[] maxPcts() { return maxPct; }
+    public double[] shiftPcts() { return shiftPct; }
+
+    /** Tick a single instrument (what Stock.tick used to do on its own fields). */
+    public void tick(int id, Random rng) {
+        double lo = minPct[id] + shiftPct[id];
+        double hi = maxPct[id] + shiftPct[id];
+        double r = (lo + rng.nextDouble() * (hi - lo)) / 100.0;
+        double p = price[id];
+        lastPrice[id] = p;
+        p = p * (1.0 + r);
+        price[id] = p < MIN_PRICE ? MIN_PRICE : p;
+    }
+
+    /**
+     * Tick every instrument. The uniforms are drawn from rng in id order (the same
+     * order as the old per-Stock loop, so seeded runs give the same prices), then
+     * the kernel applies the update over the whole book in one go.
+     */
+    public void tickAll(RandomGenerator rng) {
+        final int n = size;
+        kernel.beginTick(this, rng);
+        TickKernel.fillUniforms(rng, uniforms, 0, n);
+        kernel.apply(this, uniforms, 0, n);
+    }
+}
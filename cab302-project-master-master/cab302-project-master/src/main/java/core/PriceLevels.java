@@ -0,0 +1,61 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * One side of one instrument's resting limit orders, as two parallel arrays
+ * kept sorted by key. OrderBook stores a buy at key = limit and a sell at
+ * key = -limit, so on both sides the orders a price crosses are a suffix:
+ * finding them is one binary search and filling them just shortens the arrays.
+ * Equal keys keep time priority - the oldest sits nearest the end and fills first.
+ */
+final class PriceLevels {
+    private double[] keys = new double[8];
+    private long[] ids = new long[8];
+    private int size = 0;
+
+    int size() { return size; }
+    double key(int i) { return keys[i]; }
+    long id(int i) { return ids[i]; }
+
+    /** O(log n) to find the slot, plus the arraycopy to open it. */
+    void insert(double key, long id) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int at = lowerBound(key);   // before any equal keys, so older orders stay nearer the end
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        keys[at] = key;
+        ids[at] = id;
+        size++;
+    }
+
+    /** Remove one order; only the run of equal keys is scanned. */
+    boolean remove(double key, long id) {
+        for (int i = lowerBound(key); i < size && keys[i] == key; i++) {
+            if (ids[i] != id) continue;
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /** First index whose key is >= the given key; everything from there on crosses it. */
+    int lowerBound(double key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Drop everything from index {@code from} on (after the caller has filled it). */
+    void truncate(int from) {
+        size = from;
+    }
+}
@@ -12,11 +12,19 @@ public final class RandomTaskGenerator {
 
     /** Build a fresh set of tasks for the new day. */
     public List<Task> generate(Market market, EventEngine engine) {
+        return generate(market, engine, null);
+    }
+
+    /**
+     * Same, but with analytics the threshold tasks pick the stocks that have
+     * fallen furthest / run hardest and size the targets to their volatility.
+     */
+    public List<Task> generate(Market market, EventEngine engine, Analytics stats) {
         List<Task> out = new ArrayList<>();
 
         out.add(new Task("Read the market bulletin on the corkboard"));
 
-        List<EventEngine.ActiveEvent> active = new ArrayList<>(engine.getActiveEvents());
+        List<EventEngine.ActiveEvent> active = engine.getActiveEvents();   // immutable snapshot
         if (!active.isEmpty()) {
             EventEngine.ActiveEvent hot = active.stream()
                     .max(Comparator.comparingDouble(ae -> Math.abs(ae.def.shiftPct)))
@@ -28,7 +36,27 @@ public final class RandomTaskGenerator {
 
         // Use accessor instead of private field
         List<Stock> pool = new ArrayList<>(market.list());
-        if (pool.size() >= 2) {
+        // only stocks with a couple of returns have a trend/volatility (NaN would win max())
+        List<Stock> ready = new ArrayList<>();
+        if (stats != null) {
+            for (Stock st : pool) if (stats.samples(st.id()) >= 2) ready.add(st);
+        }
+        if (ready.size() >= 2) {
+            Stock dip = Collections.max(ready, Comparator.comparingDouble(st -> stats.drawdown(st.id())));
+            Stock run = Collections.max(ready, Comparator.comparingDouble(st -> stats.trend(st.id())));
+            out.add(makeVolTask(dip, "Buy", -1, stats));
+            if (run != dip) out.add(makeVolTask(run, "Take profit", +1, stats));
+
+            // two stocks moving together are one bet, not two
+            for (int k = 0; k < stats.pairCount(); k++) {
+                double rho = stats.correlation(k);
+                if (!(Math.abs(rho) >= 0.7)) continue;
+                out.add(new Task(String.format("Don't double up on %s and %s (correlation %.2f this hour)",
+                        market.book().code(stats.pairA(k)).toUpperCase(),
+                        market.book().code(stats.pairB(k)).toUpperCase(), rho)));
+                break;
+            }
+        } else if (pool.size() >= 2) {
             Collections.shuffle(pool, rng);
             Stock a = pool.get(0);
             Stock b = pool.get(1);
@@ -44,7 +72,17 @@ public final class RandomTaskGenerator {
 
     private Task makeThresholdTask(Stock s, String verb, double minPct, double maxPct) {
         double pct = lerp(minPct, maxPct, rng.nextDouble());
-        double target = s.price * (1.0 + pct);
+        double target = s.price() * (1.0 + pct);
+        String arrow = pct >= 0 ? "↑" : "↓";
+        return new Task(String.format("%s %s near %s (%.2f%% %s from now)",
+                verb, s.code.toUpperCase(), money(target), Math.abs(pct * 100), arrow));
+    }
+
+    // target about two hours of typical moves away, at least 1%
+    private Task makeVolTask(Stock s, String verb, int sign, Analytics stats) {
+        double move = Math.max(0.01, stats.volatility(s.id()) * Math.sqrt(120));
+        double pct = sign * Math.min(move, 0.10);
+        double target = s.price() * (1.0 + pct);
         String arrow = pct >= 0 ? "↑" : "↓";
         return new Task(String.format("%s %s near %s (%.2f%% %s from now)",
                 verb, s.code.toUpperCase(), money(target), Math.abs(pct * 100), arrow));
@@ -0,0 +1,20 @@
+package core;
+
+/** Plain loop version of the tick, always available. */
+public final class ScalarTickKernel implements TickKernel {
+
+    @Override
+    public void apply(PriceBook book, double[] u, int from, int to) {
+        final double[] price = book.prices(), lastPrice = book.lastPrices();
+        final double[] minPct = book.minPcts(), maxPct = book.maxPcts(), shiftPct = book.shiftPcts();
+        for (int i = from; i < to; i++) {
+            double lo = minPct[i] + shiftPct[i];
+            double hi = maxPct[i] + shiftPct[i];
+            double r = (lo + u[i] * (hi - lo)) / 100.0;
+            double p = price[i];
+            lastPrice[i] = p;
+            p = p * (1.0 + r);
+            price[i] = p < PriceBook.MIN_PRICE ? PriceBook.MIN_PRICE : p;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package core;
+
+import app.demo.EventLibrary;
+import events.EventDef;
+import events.EventEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Headless Monte Carlo runs for balancing the event library and the
+ * EventEngine settings. Each run is its own Simulation (fresh market, own
+ * seed) played for daysPerRun days; runs are spread over a ForkJoinPool. Run
+ * seeds are drawn up front from one master seed, so the same seed gives the
+ * same numbers on any number of threads.
+ *
+ * Every simulated day is one row: run, day, events fired, and per stock the
+ * closing price, the day's return and the worst intraday drawdown. Rows live
+ * in preallocated columns and are written as CSV and as a columnar binary
+ * file (see Result.writeColumns).
+ *
+ *   java core.ScenarioRunner runs=1000 days=100 seed=42 threads=8 out=build/scenarios chancePct=30
+ *
+ * Any EventEngine.Config setting can be given by name.
+ */
+public final class ScenarioRunner {
+    static final int COLUMNS_MAGIC = 0x434F4C31;   // "COL1"
+
+    private final Supplier<Market> markets;
+    private final Supplier<List<EventDef>> eventDefs;
+    private final EventEngine.Config config;
+
+    public ScenarioRunner(Supplier<Market> markets, Supplier<List<EventDef>> eventDefs, EventEngine.Config config) {
+        this.markets = markets;
+        this.eventDefs = eventDefs;
+        this.config = config;
+    }
+
+    /** All rows of one sweep, as columns. Row = run * daysPerRun + day. */
+    public static final class Result {
+        public final int runs, daysPerRun;
+        public final String[] codes;
+        public final int[] events;          // per row
+        public final double[] close;        // row * codes.length + stock
+        public final double[] dayReturn;    // same layout, close over the previous close (or start price) - 1
+        public final double[] maxDrawdown;  // same layout, fraction of the day's running peak
+
+        Result(int runs, int daysPerRun, String[] codes) {
+            this.runs = runs;
+            this.daysPerRun = daysPerRun;
+            this.codes = codes;
+            int rows = runs * daysPerRun;
+            events = new int[rows];
+            close = new double[rows * codes.length];
+            dayReturn = new double[rows * codes.length];
+            maxDrawdown = new double[rows * codes.length];
+        }
+
+        public int rows() { return events.length; }
+
+        public void writeCsv(Path file) throws IOException {
+            int n = codes.length;
+            try (BufferedWriter w = Files.newBufferedWriter(file)) {
+                StringBuilder sb = new StringBuilder("run,day,events");
+                for (String c : codes) sb.append(',').append(c).append("_close");
+                for (String c : codes) sb.append(',').append(c).append("_return");
+                for (String c : codes) sb.append(',').append(c).append("_maxdd");
+                w.write(sb.append('\n').toString());
+                for (int row = 0; row < rows(); row++) {
+                    sb.setLength(0);
+                    sb.append(row / daysPerRun).append(',').append(row % daysPerRun).append(',').append(events[row]);
+                    for (int s = 0; s < n; s++) sb.append(',').append(close[row * n + s]);
+                    for (int s = 0; s < n; s++) sb.append(',').append(dayReturn[row * n + s]);
+                    for (int s = 0; s < n; s++) sb.append(',').append(maxDrawdown[row * n + s]);
+                    w.write(sb.append('\n').toString());
+                }
+            }
+        }
+
+        /**
+         * Columnar file: int magic "COL1", int rows, int columns, then per column
+         * its name (writeUTF), a type byte ('I' int32 or 'D' float64) and all of
+         * its values back to back. Big-endian, as DataOutputStream writes.
+         */
+        public void writeColumns(Path file) throws IOException {
+            int n = codes.length, rows = rows();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+                out.writeInt(COLUMNS_MAGIC);
+                out.writeInt(rows);
+                out.writeInt(3 + 3 * n);
+                out.writeUTF("run");
+                out.writeByte('I');
+                for (int row = 0; row < rows; row++) out.writeInt(row / daysPerRun);
+                out.writeUTF("day");
+                out.writeByte('I');
+                for (int row = 0; row < rows; row++) out.writeInt(row % daysPerRun);
+                out.writeUTF("events");
+                out.writeByte('I');
+                for (int e : events) out.writeInt(e);
+                for (int s = 0; s < n; s++) writeColumn(out, codes[s] + "_close", close, s, n);
+                for (int s = 0; s < n; s++) writeColumn(out, codes[s] + "_return", dayReturn, s, n);
+                for (int s = 0; s < n; s++) writeColumn(out, codes[s] + "_maxdd", maxDrawdown, s, n);
+            }
+        }
+
+        private void writeColumn(DataOutputStream out, String name, double[] values, int s, int n) throws IOException {
+            out.writeUTF(name);
+            out.writeByte('D');
+            for (int row = 0; row < rows(); row++) out.writeDouble(values[row * n + s]);
+        }
+
+        /** Percentiles per stock and the events-per-day histogram, for a quick look. */
+        public String summary() {
+            int n = codes.length, rows = rows();
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%,d days (%d runs x %d)%n", rows, runs, daysPerRun));
+            int maxEvents = Arrays.stream(events).max().orElse(0);
+            int[] hist = new int[maxEvents + 1];
+            for (int e : events) hist[e]++;
+            sb.append("events/day:");
+            for (int e = 0; e <= maxEvents; e++) sb.append(String.format("  %d: %.1f%%", e, 100.0 * hist[e] / rows));
+            sb.append(String.format("%n%-8s %10s %10s %10s %10s %10s%n", "stock", "ret p5", "ret p50", "ret p95", "dd p50", "dd p95"));
+            double[] col = new double[rows];
+            for (int s = 0; s < n; s++) {
+                for (int row = 0; row < rows; row++) col[row] = dayReturn[row * n + s];
+                Arrays.sort(col);
+                double r5 = pct(col, 5), r50 = pct(col, 50), r95 = pct(col, 95);
+                for (int row = 0; row < rows; row++) col[row] = maxDrawdown[row * n + s];
+                Arrays.sort(col);
+                sb.append(String.format("%-8s %9.2f%% %9.2f%% %9.2f%% %9.2f%% %9.2f%%%n",
+                        codes[s], r5 * 100, r50 * 100, r95 * 100, pct(col, 50) * 100, pct(col, 95) * 100));
+            }
+            return sb.toString();
+        }
+
+        private static double pct(double[] sorted, int p) {
+            return sorted[Math.min(sorted.length - 1, (int) ((long) sorted.length * p / 100))];
+        }
+    }
+
+    public Result run(int runs, int daysPerRun, long seed, ForkJoinPool pool) {
+        if (runs <= 0 || daysPerRun <= 0) throw new IllegalArgumentException("runs and daysPerRun must be positive");
+        long[] seeds = new long[runs];
+        SplittableRandom master = new SplittableRandom(seed);
+        for (int r = 0; r < runs; r++) seeds[r] = master.nextLong();
+
+        Market probe = markets.get();
+        String[] codes = new String[probe.book().size()];
+        for (int id = 0; id < codes.length; id++) codes[id] = probe.book().code(id);
+        Result result = new Result(runs, daysPerRun, codes);
+
+        // each run writes only its own rows
+        pool.submit(() -> IntStream.range(0, runs).parallel()
+                .forEach(r -> runOne(result, r, seeds[r]))).join();
+        return result;
+    }
+
+    private void runOne(Result out, int run, long seed) {
+        Market market = markets.get();
+        PriceBook book = market.book();
+        int n = out.codes.length;
+        if (book.size() != n) throw new IllegalStateException("market supplier must build the same stocks every time");
+
+        // intraday peak and worst drawdown, reset each day
+        double[] peak = Arrays.copyOf(book.prices(), n);
+        double[] prevClose = Arrays.copyOf(book.prices(), n);
+        double[] worst = new double[n];
+        market.addTickListener(b -> {
+            double[] price = b.prices();
+            for (int i = 0; i < n; i++) {
+                double p = price[i];
+                if (p > peak[i]) peak[i] = p;
+                double dd = 1.0 - p / peak[i];
+                if (dd > worst[i]) worst[i] = dd;
+            }
+        });
+
+        Simulation sim = new Simulation(market, eventDefs.get(), new Random(seed),
+                Simulation.DEFAULT_TICK_MS, Simulation.DEFAULT_DAY_MS, config);
+        sim.setDayEndListener(s -> {
+            int row = run * out.daysPerRun + s.day();
+            out.events[row] = s.engine().eventsToday();
+            double[] price = book.prices();
+            for (int i = 0; i < n; i++) {
+                out.close[row * n + i] = price[i];
+                out.dayReturn[row * n + i] = price[i] / prevClose[i] - 1.0;
+                prevClose[i] = price[i];
+                out.maxDrawdown[row * n + i] = worst[i];
+                peak[i] = price[i];
+                worst[i] = 0;
+            }
+        });
+        sim.runDays(out.daysPerRun);
+    }
+
+    // java core.ScenarioRunner [runs=N] [days=N] [seed=N] [threads=N] [out=dir] [<engine setting>=N ...]
+    public static void main(String[] args) {
+        int runs = 100, days = 30, threads = Runtime.getRuntime().availableProcessors();
+        long seed = 42L;
+        Path outDir = Path.of("scenarios");
+        EventEngine.Config config = EventEngine.Config.DEFAULTS;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            String key = arg.substring(0, eq), value = arg.substring(eq + 1);
+            switch (key) {
+                case "runs" -> runs = Integer.parseInt(value);
+                case "days" -> days = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "threads" -> threads = Integer.parseInt(value);
+                case "out" -> outDir = Path.of(value);
+                default -> config = config.with(key, value);
+            }
+        }
+
+        ScenarioRunner runner = new ScenarioRunner(Simulation::demoMarket, EventLibrary::create, config);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        Result result = runner.run(runs, days, seed, pool);
+        double secs = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.println(config);
+        System.out.printf("%,d days on %d threads in %.2fs (%,.0f days/s)%n",
+                result.rows(), threads, secs, result.rows() / secs);
+        System.out.print(result.summary());
+        try {
+            Files.createDirectories(outDir);
+            result.writeCsv(outDir.resolve("days.csv"));
+            result.writeColumns(outDir.resolve("days.cols"));
+            System.out.println("wrote " + outDir.resolve("days.csv") + " and days.cols");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * Parallel tick mode for big markets. The book is cut into fixed-size shards
+ * and each shard owns its own random stream split off one master seed, so a
+ * shard always sees the same draws no matter which thread runs it or how many
+ * threads there are. Same seed = bit-identical prices on 1 core or 64.
+ *
+ * Note this gives different numbers from Market.tickAll(Random), which uses
+ * one shared stream for the whole book.
+ */
+public final class ShardedTicker {
+    public static final int DEFAULT_SHARD_SIZE = 16_384;
+
+    private final ForkJoinPool pool;
+    private final int shardSize;
+    private final SplittableGenerator master;
+    // one stream per shard, split from master in shard order as the book grows
+    private final List<SplittableGenerator> shardRngs = new ArrayList<>();
+    // per-tick draws for the kernel's beginTick; separate so the shard streams are unchanged
+    private final SplittableGenerator tickRng;
+    private double[] uniforms = new double[0];
+
+    public ShardedTicker(long seed) {
+        this(seed, DEFAULT_SHARD_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public ShardedTicker(long seed, int shardSize, ForkJoinPool pool) {
+        if (shardSize <= 0) throw new IllegalArgumentException("shardSize must be positive");
+        this.master = new SplittableRandom(seed);
+        this.tickRng = new SplittableRandom(~seed);
+        this.shardSize = shardSize;
+        this.pool = pool;
+    }
+
+    public int shardSize() { return shardSize; }
+
+    /** Tick every instrument in the book, shards spread across the pool. */
+    public void tick(PriceBook book) {
+        final int n = book.size();
+        if (n == 0) return;
+        int shards = (n + shardSize - 1) / shardSize;
+        while (shardRngs.size() < shards) shardRngs.add(master.split());
+        if (uniforms.length < n) uniforms = new double[book.prices().length];
+        book.kernel().beginTick(book, tickRng);
+
+        if (shards == 1) {
+            tickShard(book, 0, n);
+        } else {
+            pool.invoke(new ShardTask(book, 0, shards, n));
+        }
+    }
+
+    private void tickShard(PriceBook book, int shard, int n) {
+        int from = shard * shardSize;
+        int to = Math.min(n, from + shardSize);
+        TickKernel.fillUniforms(shardRngs.get(shard), uniforms, from, to);
+        book.kernel().apply(book, uniforms, from, to);
+    }
+
+    // splits the shard range in half until one shard is left
+    private final class ShardTask extends RecursiveAction {
+        private final PriceBook book;
+        private final int lo, hi, n;
+
+        ShardTask(PriceBook book, int lo, int hi, int n) {
+            this.book = book; this.lo = lo; this.hi = hi; this.n = n;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                tickShard(book, lo, n);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ShardTask(book, lo, mid, n), new ShardTask(book, mid, hi, n));
+        }
+    }
+}
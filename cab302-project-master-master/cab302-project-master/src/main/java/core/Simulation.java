@@ -0,0 +1,142 @@
+package core;
+
+import app.demo.EventLibrary;
+import app.demo.Stock;
+import events.EventDef;
+import events.EventEngine;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Headless version of the game loop: ticks the market, polls the event engine
+ * and rolls over days on a logical clock instead of a Swing/JavaFX timer.
+ * Nothing here needs a display, so it can run from a plain main or a test
+ * as fast as the CPU allows.
+ */
+public final class Simulation {
+
+    // Same cadence as ui.Main: prices move once a second.
+    public static final long DEFAULT_TICK_MS = 1_000;
+    // One workday in the hub (9am to 5pm at one in-game minute per second).
+    public static final long DEFAULT_DAY_MS = 480_000;
+
+    private final Market market;
+    private final EventEngine engine;
+    private final Random rng;
+    private final long tickMs;
+    private final long dayMs;
+
+    // logical clock, only moves when step() is called
+    private long nowMs = 0L;
+    private long nextDayAt;
+    private long ticks = 0L;
+    private int day = 0;
+    // told at the end of each day, before the engine's daily reset (e.g. core.ScenarioRunner)
+    private java.util.function.Consumer<Simulation> onDayEnd;
+
+    public Simulation(Market market, List<EventDef> eventDefs, Random rng) {
+        this(market, eventDefs, rng, DEFAULT_TICK_MS, DEFAULT_DAY_MS);
+    }
+
+    public Simulation(Market market, List<EventDef> eventDefs, Random rng, long tickMs, long dayMs) {
+        this(market, eventDefs, rng, tickMs, dayMs, EventEngine.Config.DEFAULTS);
+    }
+
+    public Simulation(Market market, List<EventDef> eventDefs, Random rng, long tickMs, long dayMs,
+                      EventEngine.Config config) {
+        if (tickMs <= 0 || dayMs <= 0) throw new IllegalArgumentException("tickMs and dayMs must be positive");
+        this.market = market;
+        this.rng = rng;
+        this.tickMs = tickMs;
+        this.dayMs = dayMs;
+        this.nextDayAt = dayMs;
+        this.engine = new EventEngine(market, eventDefs, rng, s -> {}, s -> {}, () -> {}, this::now, config);
+    }
+
+    public Market market() { return market; }
+    public EventEngine engine() { return engine; }
+    public long now() { return nowMs; }
+    public long ticks() { return ticks; }
+    public int day() { return day; }
+
+    public void setDayEndListener(java.util.function.Consumer<Simulation> l) { this.onDayEnd = l; }
+
+    /** Advance the clock by one tick: move prices, then run whatever engine work is due. */
+    public void step() {
+        nowMs += tickMs;
+        market.tickAll(rng);
+        ticks++;
+
+        // Trigger checks, cooldowns and event expiries that are due by now.
+        engine.advance();
+
+        if (nowMs >= nextDayAt) {
+            if (onDayEnd != null) onDayEnd.accept(this);
+            engine.resetDaily();
+            day++;
+            nextDayAt += dayMs;
+        }
+    }
+
+    public void run(long steps) {
+        for (long i = 0; i < steps; i++) step();
+    }
+
+    /** Run until the given number of whole days have finished. */
+    public void runDays(int days) {
+        int target = day + days;
+        while (day < target) step();
+    }
+
+    // the seven commodities from the hub
+    static Market demoMarket() {
+        Market market = new Market();
+        market.add(new Stock("wood", 100.00));
+        market.add(new Stock("iron", 100.00));
+        market.add(new Stock("coal", 100.00));
+        market.add(new Stock("steel", 100.00));
+        market.add(new Stock("meat", 100.00));
+        market.add(new Stock("paper", 100.00));
+        market.add(new Stock("gold", 1850.00));
+        return market;
+    }
+
+    // quick smoke run: java core.Simulation [days] [seed] [journalDir]
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        Market market = demoMarket();
+        Simulation sim = new Simulation(market, EventLibrary.create(), new Random(seed));
+
+        Journal journal = null;
+        if (args.length > 2) {
+            journal = new Journal(Path.of(args[2]), sim::now);
+            journal.checkpoint(market);
+            journal.attach(market, sim.engine());
+        }
+
+        long start = System.nanoTime();
+        sim.runDays(days);
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d days, %,d ticks in %.3fs (%,.0f ticks/s)%n",
+                days, sim.ticks(), secs, sim.ticks() / secs);
+        for (Stock s : market.list()) {
+            System.out.printf("  %-6s %,.2f%n", s.code.toUpperCase(), s.price());
+        }
+
+        if (journal != null) {
+            journal.close();
+            // rebuild from the journal alone and check we land on the same prices
+            Market replayed = demoMarket();
+            long seq = new JournalReader(Path.of(args[2])).replay(replayed, Long.MAX_VALUE);
+            boolean same = java.util.Arrays.equals(
+                    java.util.Arrays.copyOf(market.book().prices(), market.book().size()),
+                    java.util.Arrays.copyOf(replayed.book().prices(), replayed.book().size()));
+            System.out.printf("journal: %,d records, replay %s%n", seq, same ? "matches" : "DIFFERS");
+        }
+    }
+}
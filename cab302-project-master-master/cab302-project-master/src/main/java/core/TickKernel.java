@@ -0,0 +1,26 @@
+package core;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * One tick of the uniform-shock price update over a range of PriceBook rows:
+ * price *= 1 + (lo + u * (hi - lo)) / 100, floored at PriceBook.MIN_PRICE,
+ * where lo/hi are the base min/max pct plus the row's event shift.
+ * Implementations must give bit-identical results for the same uniforms.
+ */
+public interface TickKernel {
+
+    void apply(PriceBook book, double[] uniforms, int from, int to);
+
+    /**
+     * Called once per tick before any apply(), on the ticking thread, for
+     * kernels with per-tick state of their own (see FactorModel). Draws
+     * nothing by default, so plain kernels see the same uniforms as before.
+     */
+    default void beginTick(PriceBook book, RandomGenerator rng) {}
+
+    /** Fill out[from, to) with uniforms in [0, 1), in index order. */
+    static void fillUniforms(RandomGenerator rng, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) out[i] = rng.nextDouble();
+    }
+}
@@ -0,0 +1,35 @@
+package core;
+
+/**
+ * Picks the tick kernel once at startup. The Vector API path is used when the
+ * jdk.incubator.vector module is resolved (run with --add-modules
+ * jdk.incubator.vector); otherwise we fall back to the scalar loop.
+ * Override with -Dmarket.tickKernel=scalar|vector|auto.
+ */
+public final class TickKernels {
+    public static final String PROPERTY = "market.tickKernel";
+
+    private static final TickKernel DEFAULT = select(System.getProperty(PROPERTY, "auto"));
+
+    public static TickKernel defaultKernel() { return DEFAULT; }
+
+    public static boolean vectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    static TickKernel select(String mode) {
+        return switch (mode.toLowerCase()) {
+            case "scalar" -> new ScalarTickKernel();
+            case "vector" -> {
+                if (!vectorApiAvailable()) {
+                    throw new IllegalStateException("-D" + PROPERTY + "=vector needs --add-modules jdk.incubator.vector");
+                }
+                yield new VectorTickKernel();
+            }
+            case "auto" -> vectorApiAvailable() ? new VectorTickKernel() : new ScalarTickKernel();
+            default -> throw new IllegalArgumentException("Unknown " + PROPERTY + ": " + mode);
+        };
+    }
+
+    private TickKernels() {}
+}
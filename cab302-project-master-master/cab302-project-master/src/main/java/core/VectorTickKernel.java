@@ -0,0 +1,41 @@
+package core;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD version of the tick using the incubating Vector API. Does the same
+ * operations in the same order as ScalarTickKernel (no fused multiply-add),
+ * so both give identical prices. Only loaded when TickKernels finds the
+ * jdk.incubator.vector module at startup.
+ */
+public final class VectorTickKernel implements TickKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private final ScalarTickKernel tail = new ScalarTickKernel();
+
+    @Override
+    public void apply(PriceBook book, double[] u, int from, int to) {
+        final double[] price = book.prices(), lastPrice = book.lastPrices();
+        final double[] minPct = book.minPcts(), maxPct = book.maxPcts(), shiftPct = book.shiftPcts();
+
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector shift = DoubleVector.fromArray(SPECIES, shiftPct, i);
+            DoubleVector lo = DoubleVector.fromArray(SPECIES, minPct, i).add(shift);
+            DoubleVector hi = DoubleVector.fromArray(SPECIES, maxPct, i).add(shift);
+            DoubleVector r = lo.add(DoubleVector.fromArray(SPECIES, u, i).mul(hi.sub(lo))).div(100.0);
+
+            DoubleVector p = DoubleVector.fromArray(SPECIES, price, i);
+            p.intoArray(lastPrice, i);
+            p = p.mul(r.add(1.0));
+            VectorMask<Double> floor = p.compare(VectorOperators.LT, PriceBook.MIN_PRICE);
+            p.blend(PriceBook.MIN_PRICE, floor).intoArray(price, i);
+        }
+        tail.apply(book, u, i, to);
+    }
+
+    @Override public String toString() { return "vector(" + SPECIES.length() + " lanes)"; }
+}
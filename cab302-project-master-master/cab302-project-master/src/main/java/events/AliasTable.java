@@ -0,0 +1,54 @@
+package events;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Vose's alias method: after an O(n) build, draws an item with probability
+ * proportional to its weight in O(1) (one int and one double from the rng).
+ * Items are the values in {@code ids}, e.g. def indices in EligibilityIndex.
+ */
+final class AliasTable {
+    private final int[] ids;
+    private final double[] prob;
+    private final int[] alias;
+
+    /** weights[i] is the weight of ids[i]; all must be positive. */
+    AliasTable(int[] ids, long[] weights, int n) {
+        this.ids = new int[n];
+        this.prob = new double[n];
+        this.alias = new int[n];
+        if (n == 0) return;
+        System.arraycopy(ids, 0, this.ids, 0, n);
+
+        double total = 0;
+        for (int i = 0; i < n; i++) total += weights[i];
+
+        // scale so the average weight is 1, then pair "small" slots with "large" ones
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int ns = 0, nl = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[ns++] = i; else large[nl++] = i;
+        }
+        while (ns > 0 && nl > 0) {
+            int s = small[--ns];
+            int l = large[--nl];
+            prob[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) small[ns++] = l; else large[nl++] = l;
+        }
+        // whatever is left is 1 up to rounding
+        while (nl > 0) prob[large[--nl]] = 1.0;
+        while (ns > 0) prob[small[--ns]] = 1.0;
+    }
+
+    int size() { return ids.length; }
+
+    int sample(RandomGenerator rng) {
+        int slot = rng.nextInt(ids.length);
+        return rng.nextDouble() < prob[slot] ? ids[slot] : ids[alias[slot]];
+    }
+}
@@ -0,0 +1,72 @@
+package events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size lock-free queue (Vyukov's bounded queue: each slot carries a
+ * sequence number that says whose turn it is). Any number of threads may offer;
+ * poll is also safe from several threads, which EventBus relies on when a
+ * publisher evicts the oldest entry to make room.
+ */
+final class BoundedRing<T> {
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray seq;
+    private final AtomicLong tail = new AtomicLong();   // next slot to write
+    private final AtomicLong head = new AtomicLong();   // next slot to read
+
+    BoundedRing(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;   // round up to a power of two
+        mask = cap - 1;
+        items = new AtomicReferenceArray<>(cap);
+        seq = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) seq.set(i, i);
+    }
+
+    int capacity() { return mask + 1; }
+
+    int size() {
+        long n = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(n, capacity()));
+    }
+
+    /** False if full. */
+    boolean offer(T item) {
+        while (true) {
+            long pos = tail.get();
+            int slot = (int) (pos & mask);
+            long diff = seq.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items.lazySet(slot, item);
+                    seq.set(slot, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // else another producer got this slot first; reload and retry
+        }
+    }
+
+    /** Null if empty. */
+    T poll() {
+        while (true) {
+            long pos = head.get();
+            int slot = (int) (pos & mask);
+            long diff = seq.get(slot) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    T item = items.get(slot);
+                    items.lazySet(slot, null);
+                    seq.set(slot, pos + mask + 1);
+                    return item;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package events;
+
+import core.Market;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * Keeps track of which EventDefs are allowed to fire right now, so EventEngine can
+ * pick one at random without copying and shuffling the pool or building
+ * "stock|title" strings for every candidate.
+ *
+ * Every def gets an int key (its stock|title pair) and an int stock id when the
+ * pool is loaded. Limits are tracked per key, cooldowns per stock. The engine
+ * tells us when a cooldown runs out or an event ends (it schedules those on its
+ * TimingWheel), so nothing here needs the clock.
+ *
+ * Picks are weighted by EventDef.weight. The fast path draws from an alias table
+ * in O(1) and rejects defs that aren't eligible right now; a Fenwick tree of the
+ * eligible weights is the exact O(log n) fallback when we reject too often. The
+ * alias table is rebuilt lazily once too little of its weight is still eligible
+ * or a def outside it becomes eligible again.
+ *
+ * Loading a pool is split in two so a big library can be swapped in without
+ * stalling the engine: compile() does the string work and grouping and may run
+ * on any thread (ids are interned in concurrent maps, so they stay stable
+ * across pools); install() is a linear pass over the compiled arrays on the
+ * engine's thread.
+ *
+ * Ids are only ever added during a day, so reloads that rename events leave
+ * stale ones behind. resetDay() starts a fresh set of ids for the current pool
+ * once the old set has grown well past it; nothing refers to ids then, since
+ * nothing is active, counted or cooling down.
+ */
+final class EligibilityIndex {
+    // weights are stored as fixed-point longs so the Fenwick sums never drift
+    static final double WEIGHT_SCALE = 1 << 16;
+    // alias draws to try before falling back to the Fenwick tree
+    private static final int MAX_REJECTS = 16;
+
+    private final int maxPerKeyPerDay;
+
+    // Interned ids. Kept across pools so today's counters survive setEventDefs.
+    static final class Ids {
+        final Map<String, Integer> keys = new ConcurrentHashMap<>();    // "stock|title" -> key id
+        final Map<String, Integer> stocks = new ConcurrentHashMap<>();  // lower-case stock -> stock id
+        final AtomicInteger nextKey = new AtomicInteger();
+        final AtomicInteger nextStock = new AtomicInteger();
+    }
+
+    // replaced whole by resetDay, so a compile running on another thread keeps a consistent set
+    private volatile Ids ids = new Ids();
+
+    /** A pool turned into flat arrays, ready for install(). Immutable once built. */
+    static final class Compiled {
+        final EventDef[] defs;
+        final int[] defKey, defStock;
+        final boolean[] known;
+        final int[][] defsByKey, defsByStock;   // def indices by key id / stock id
+        final long[] defWeight;
+        final int marketSize;
+        final Ids ids;                          // the id set the keys above belong to
+
+        private Compiled(Ids ids, EventDef[] defs, int[] defKey, int[] defStock, boolean[] known,
+                         int[][] defsByKey, int[][] defsByStock, long[] defWeight, int marketSize) {
+            this.ids = ids;
+            this.defs = defs;
+            this.defKey = defKey;
+            this.defStock = defStock;
+            this.known = known;
+            this.defsByKey = defsByKey;
+            this.defsByStock = defsByStock;
+            this.defWeight = defWeight;
+            this.marketSize = marketSize;
+        }
+
+        int size() { return defs.length; }
+    }
+
+    // per key
+    private int[] usedToday = new int[16];
+    private final BitSet usedKeys = new BitSet();     // keys with usedToday > 0
+    private final BitSet activeKeys = new BitSet();
+
+    // per stock
+    private final BitSet coolingStocks = new BitSet();
+
+    // per def, rebuilt with the pool
+    private EventDef[] defs = new EventDef[0];
+    private int[] defKey = new int[0];
+    private int[] defStock = new int[0];
+    private boolean[] known = new boolean[0];      // stock (or factor) exists in the market
+    private int[][] defsByKey = new int[0][];
+    private int[][] defsByStock = new int[0][];
+    private long[] defWeight = new long[0];
+    private boolean[] eligible = new boolean[0];
+    private long[] tree = new long[1];              // 1-based Fenwick tree of eligible weights
+    private int eligibleCount = 0;
+    private long eligibleWeight = 0;
+    private int builtForMarketSize = -1;
+
+    // alias table over some set of defs, plus how much of its weight is eligible now
+    private AliasTable alias;
+    private boolean[] inAlias = new boolean[0];
+    private long aliasWeight = 0;
+    private long aliasEligibleWeight = 0;
+    private boolean aliasDirty = true;
+
+    EligibilityIndex(int maxPerKeyPerDay) {
+        this.maxPerKeyPerDay = maxPerKeyPerDay;
+    }
+
+    /** Load a new pool right away. O(n); only happens on setEventDefs or when the market grows. */
+    void rebuild(List<EventDef> pool, Market market) {
+        install(compile(pool, market), market);
+    }
+
+    /** The expensive half of loading a pool. Safe to call from any thread. */
+    Compiled compile(List<EventDef> pool, Market market) {
+        Ids ids = this.ids;
+        EventDef[] d = pool.toArray(new EventDef[0]);
+        int n = d.length;
+        int[] key = new int[n];
+        int[] stockOf = new int[n];
+        boolean[] isKnown = new boolean[n];
+        long[] weight = new long[n];
+
+        for (int i = 0; i < n; i++) {
+            EventDef ev = d[i];
+            String stock = ev.stockCode.toLowerCase();
+            key[i] = ids.keys.computeIfAbsent(stock + "|" + ev.title, k -> ids.nextKey.getAndIncrement());
+            stockOf[i] = ids.stocks.computeIfAbsent(stock, k -> ids.nextStock.getAndIncrement());
+            isKnown[i] = market.hasTarget(ev.stockCode);
+            weight[i] = Math.max(1L, Math.round(ev.weight * WEIGHT_SCALE));
+        }
+        return new Compiled(ids, d, key, stockOf, isKnown,
+                group(key, ids.nextKey.get()), group(stockOf, ids.nextStock.get()), weight, market.book().size());
+    }
+
+    /** Switch to a compiled pool; today's counters, active keys and cooldowns carry over. Engine thread only. */
+    void install(Compiled c, Market market) {
+        // compiled against ids that resetDay has since replaced: redo it with the current ones
+        if (c.ids != ids) c = compile(Arrays.asList(c.defs), market);
+        int n = c.size();
+        defs = c.defs;
+        defKey = c.defKey;
+        defStock = c.defStock;
+        known = c.known;
+        defWeight = c.defWeight;
+        defsByKey = c.defsByKey;
+        defsByStock = c.defsByStock;
+        builtForMarketSize = c.marketSize;
+        if (usedToday.length < defsByKey.length) usedToday = Arrays.copyOf(usedToday, defsByKey.length * 2);
+
+        eligible = new boolean[n];
+        tree = new long[n + 1];
+        eligibleCount = 0;
+        eligibleWeight = 0;
+        for (int i = 0; i < n; i++) {
+            if (computeEligible(i)) {
+                eligible[i] = true;
+                eligibleCount++;
+                eligibleWeight += defWeight[i];
+                tree[i + 1] += defWeight[i];
+            }
+        }
+        // linear-time Fenwick build: push each node's sum up to its parent
+        for (int i = 1; i <= n; i++) {
+            int parent = i + (i & -i);
+            if (parent <= n) tree[parent] += tree[i];
+        }
+
+        alias = null;
+        inAlias = new boolean[n];
+        aliasWeight = 0;
+        aliasEligibleWeight = 0;
+        aliasDirty = true;
+    }
+
+    // def indices bucketed by id, e.g. all defs that share a stock
+    private static int[][] group(int[] ids, int groups) {
+        int[] counts = new int[groups];
+        for (int id : ids) counts[id]++;
+        int[][] out = new int[groups][];
+        for (int g = 0; g < groups; g++) out[g] = new int[counts[g]];
+        int[] fill = new int[groups];
+        for (int i = 0; i < ids.length; i++) out[ids[i]][fill[ids[i]]++] = i;
+        return out;
+    }
+
+    /** True if the market has gained stocks since the pool was indexed. */
+    boolean isStale(Market market) {
+        return builtForMarketSize != market.book().size();
+    }
+
+    int size() { return defs.length; }
+    int eligibleCount() { return eligibleCount; }
+    EventDef def(int i) { return defs[i]; }
+    int keyOf(int def) { return defKey[def]; }
+
+    /** Index of a def in the pool with this stock and title, or -1. */
+    int find(String stockCode, String title) {
+        Integer key = ids.keys.get(stockCode.toLowerCase() + "|" + title);
+        if (key == null || key >= defsByKey.length || defsByKey[key].length == 0) return -1;
+        return defsByKey[key][0];
+    }
+    int stockOf(int def) { return defStock[def]; }
+
+    /** A stock's cooldown has run out. */
+    void endCooldown(int stock) {
+        if (!coolingStocks.get(stock)) return;
+        coolingStocks.clear(stock);
+        refreshAll(defsByStock, stock);
+    }
+
+    /** An event with this key has finished (its daily count still stands). */
+    void endKey(int key) {
+        if (!activeKeys.get(key)) return;
+        activeKeys.clear(key);
+        refreshAll(defsByKey, key);
+    }
+
+    /**
+     * Weighted random pick among the eligible defs. Caller must check
+     * eligibleCount() > 0 first.
+     */
+    int pick(RandomGenerator rng) {
+        if (aliasDirty || aliasEligibleWeight * 4 < aliasWeight) rebuildAlias();
+        for (int tries = 0; tries < MAX_REJECTS; tries++) {
+            int def = alias.sample(rng);
+            if (eligible[def]) return def;
+        }
+        return pickExact(rng.nextLong(eligibleWeight));
+    }
+
+    // def holding the given point of the cumulative eligible weight, O(log n)
+    private int pickExact(long point) {
+        int pos = 0;
+        for (int step = Integer.highestOneBit(defs.length); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= defs.length && tree[next] <= point) {
+                pos = next;
+                point -= tree[next];
+            }
+        }
+        return pos;   // tree is 1-based, so pos is already the 0-based def index
+    }
+
+    // O(n), but only when eligibility has moved a lot since the last build
+    private void rebuildAlias() {
+        int[] ids = new int[eligibleCount];
+        long[] weights = new long[eligibleCount];
+        int k = 0;
+        for (int i = 0; i < defs.length; i++) {
+            inAlias[i] = eligible[i];
+            if (eligible[i]) {
+                ids[k] = i;
+                weights[k++] = defWeight[i];
+            }
+        }
+        alias = new AliasTable(ids, weights, k);
+        aliasWeight = eligibleWeight;
+        aliasEligibleWeight = eligibleWeight;
+        aliasDirty = false;
+    }
+
+    /** Record that a def fired: its key is active and counted, its stock starts cooling down. */
+    void markTriggered(int def) {
+        int key = defKey[def];
+        int stock = defStock[def];
+        activeKeys.set(key);
+        usedToday[key]++;
+        usedKeys.set(key);
+        coolingStocks.set(stock);
+        refreshAll(defsByKey, key);
+        refreshAll(defsByStock, stock);
+    }
+
+    /** Start of a new day: nothing active, counters and cooldowns cleared. Only touches what fired. */
+    void resetDay(Market market) {
+        for (int k = usedKeys.nextSetBit(0); k >= 0; k = usedKeys.nextSetBit(k + 1)) usedToday[k] = 0;
+        activeKeys.clear();   // a key can only be active if it was used today
+
+        for (int st = coolingStocks.nextSetBit(0); st >= 0; st = coolingStocks.nextSetBit(st + 1)) {
+            coolingStocks.clear(st);
+            refreshAll(defsByStock, st);
+        }
+        for (int k = usedKeys.nextSetBit(0); k >= 0; k = usedKeys.nextSetBit(k + 1)) refreshAll(defsByKey, k);
+        usedKeys.clear();
+
+        // ids left over from reloads: start a fresh set for the pool we have now
+        if (ids.nextKey.get() > 2 * defs.length + 16 || ids.nextStock.get() > 2 * defsByStockInUse() + 16) {
+            ids = new Ids();
+            usedToday = new int[16];
+            install(compile(Arrays.asList(defs), market), market);
+        }
+    }
+
+    // stock ids that some def in the pool actually uses
+    private int defsByStockInUse() {
+        int used = 0;
+        for (int[] g : defsByStock) if (g.length > 0) used++;
+        return used;
+    }
+
+    private boolean computeEligible(int i) {
+        int key = defKey[i];
+        return known[i]
+                && !activeKeys.get(key)
+                && usedToday[key] < maxPerKeyPerDay
+                && !coolingStocks.get(defStock[i]);
+    }
+
+    private void refreshAll(int[][] groups, int id) {
+        if (id >= groups.length) return;
+        for (int def : groups[id]) refresh(def);
+    }
+
+    private void refresh(int i) {
+        boolean now = computeEligible(i);
+        if (now == eligible[i]) return;
+        eligible[i] = now;
+        long delta = now ? defWeight[i] : -defWeight[i];
+        eligibleCount += now ? 1 : -1;
+        eligibleWeight += delta;
+        for (int x = i + 1; x <= defs.length; x += x & -x) tree[x] += delta;
+
+        if (inAlias[i]) aliasEligibleWeight += delta;
+        else if (now) aliasDirty = true;   // the table can never draw this def
+    }
+}
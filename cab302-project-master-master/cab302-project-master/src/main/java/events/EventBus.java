@@ -1,19 +1,167 @@
 package events;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
+/**
+ * Pub/sub for MarketEvents. Every subscriber gets its own bounded queue and is
+ * delivered to on its own executor, so a slow listener (or the JavaFX thread)
+ * never holds up whoever is publishing.
+ *
+ * The subscriber list is a copy-on-write array: publish() just reads it, and
+ * subscribe/unsubscribe swap in a new one.
+ */
 public final class EventBus {
-    private final List<Consumer<MarketEvent>> listeners = new ArrayList<>();
 
-    public void subscribe(Consumer<MarketEvent> listener) {
-        listeners.add(listener);
+    /** What to do when a subscriber's queue is full. */
+    public enum Backpressure {
+        DROP_OLDEST,   // evict the oldest queued event to make room
+        BLOCK,         // publisher waits for space (don't use if the publisher is the delivery thread)
+        COALESCE       // keep only the newest overflow event; it's delivered after the queue drains
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Object writeLock = new Object();
+    private volatile Subscription[] subscribers = new Subscription[0];
+
+    /** Deliver on the publishing thread, same as the old bus. */
+    public Subscription subscribe(Consumer<MarketEvent> listener) {
+        return subscribe(listener, Runnable::run);
+    }
+
+    /** Deliver on the given executor, e.g. Platform::runLater for UI listeners. */
+    public Subscription subscribe(Consumer<MarketEvent> listener, Executor executor) {
+        return subscribe(listener, executor, DEFAULT_CAPACITY, Backpressure.DROP_OLDEST, null);
+    }
+
+    /**
+     * Full version. {@code types} limits delivery to events whose MarketEvent.type is
+     * in the set (null = everything).
+     */
+    public Subscription subscribe(Consumer<MarketEvent> listener, Executor executor,
+                                  int capacity, Backpressure backpressure, Set<EventType> types) {
+        Subscription sub = new Subscription(listener, executor, capacity, backpressure, types);
+        synchronized (writeLock) {
+            Subscription[] cur = subscribers;
+            Subscription[] next = Arrays.copyOf(cur, cur.length + 1);
+            next[cur.length] = sub;
+            subscribers = next;
+        }
+        return sub;
+    }
+
+    private void remove(Subscription sub) {
+        synchronized (writeLock) {
+            Subscription[] cur = subscribers;
+            int at = -1;
+            for (int i = 0; i < cur.length; i++) if (cur[i] == sub) at = i;
+            if (at < 0) return;
+            Subscription[] next = new Subscription[cur.length - 1];
+            System.arraycopy(cur, 0, next, 0, at);
+            System.arraycopy(cur, at + 1, next, at, cur.length - at - 1);
+            subscribers = next;
+        }
     }
 
     public void publish(MarketEvent event) {
-        for (Consumer<MarketEvent> l : listeners) {
-            l.accept(event);
+        for (Subscription s : subscribers) {
+            s.offer(event);
+        }
+    }
+
+    public int subscriberCount() { return subscribers.length; }
+
+    /** One listener's queue and delivery state. Close it to unsubscribe. */
+    public final class Subscription implements AutoCloseable {
+        private final Consumer<MarketEvent> listener;
+        private final Executor executor;
+        private final Backpressure backpressure;
+        private final Set<EventType> types;
+        private final BoundedRing<MarketEvent> queue;
+        private final AtomicReference<MarketEvent> overflow = new AtomicReference<>();   // COALESCE only
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private volatile boolean closed = false;
+
+        private Subscription(Consumer<MarketEvent> listener, Executor executor,
+                             int capacity, Backpressure backpressure, Set<EventType> types) {
+            this.listener = listener;
+            this.executor = executor;
+            this.backpressure = backpressure;
+            if (types == null) {
+                this.types = null;
+            } else {
+                this.types = EnumSet.noneOf(EventType.class);
+                this.types.addAll(types);
+            }
+            this.queue = new BoundedRing<>(capacity);
+        }
+
+        public long delivered() { return delivered.get(); }
+        public long dropped() { return dropped.get(); }
+        public long coalesced() { return coalesced.get(); }
+        public int queued() { return queue.size(); }
+
+        @Override
+        public void close() {
+            closed = true;
+            remove(this);
+        }
+
+        private void offer(MarketEvent event) {
+            if (closed) return;
+            if (types != null && !types.contains(event.type)) return;
+
+            if (!queue.offer(event)) {
+                switch (backpressure) {
+                    case DROP_OLDEST -> {
+                        do {
+                            if (queue.poll() != null) dropped.incrementAndGet();
+                        } while (!queue.offer(event));
+                    }
+                    case BLOCK -> {
+                        while (!queue.offer(event)) {
+                            if (closed) return;
+                            LockSupport.parkNanos(50_000);
+                        }
+                    }
+                    case COALESCE -> {
+                        if (overflow.getAndSet(event) != null) coalesced.incrementAndGet();
+                    }
+                }
+            }
+            if (scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+        }
+
+        // runs on the executor; only one drain per subscription at a time
+        private void drain() {
+            while (true) {
+                MarketEvent e = queue.poll();
+                if (e == null) e = overflow.getAndSet(null);
+                if (e == null) {
+                    scheduled.set(false);
+                    // something may have arrived between the last poll and the flag clearing
+                    if ((queue.size() == 0 && overflow.get() == null) || !scheduled.compareAndSet(false, true)) return;
+                    continue;
+                }
+                if (closed) continue;
+                try {
+                    listener.accept(e);
+                    delivered.incrementAndGet();
+                } catch (RuntimeException ex) {
+                    ex.printStackTrace();   // one bad listener shouldn't kill the bus
+                }
+            }
         }
     }
 }
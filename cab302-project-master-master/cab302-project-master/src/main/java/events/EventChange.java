@@ -0,0 +1,30 @@
+package events;
+
+/**
+ * One change to the engine's set of active events. Sequence numbers go up by one
+ * per change, so a listener can tell whether it has missed or repeated anything.
+ */
+public final class EventChange {
+    public enum Kind {
+        STARTED,    // an event fired and its shift is applied
+        ENDED,      // its durationMs ran out and the shift was undone
+        REVERTED    // still active at end of day; undone by resetDaily
+    }
+
+    public final long seq;
+    public final Kind kind;
+    public final EventEngine.ActiveEvent event;
+    public final long atMillis;   // engine clock when it happened
+
+    EventChange(long seq, Kind kind, EventEngine.ActiveEvent event, long atMillis) {
+        this.seq = seq;
+        this.kind = kind;
+        this.event = event;
+        this.atMillis = atMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + seq + " " + kind + " " + event.def.title + " (" + event.def.stockCode + ")";
+    }
+}
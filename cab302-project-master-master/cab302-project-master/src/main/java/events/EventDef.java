@@ -7,14 +7,29 @@ public final class EventDef {
     public final String stockCode;
     public final double shiftPct;
     public final int durationMs;
+    // how likely this is to be picked relative to others (1.0 = normal, 0.05 = rare "black swan")
+    public final double weight;
+    // classified from the title once, here, rather than on every publish
+    public final EventType type;
+    private String headline;   // built on first use
 
     public EventDef(String title, String description,
-                    String stockCode, double shiftPct, int durationMs) {
+                    String stockCode, double shiftPct, int durationMs, double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Event weight must be positive: " + title + " = " + weight);
+        }
         this.title = title;
         this.description = description;
         this.stockCode = stockCode;
         this.shiftPct = shiftPct;
         this.durationMs = durationMs;
+        this.weight = weight;
+        this.type = EventType.classify(title, stockCode);
+    }
+
+    public EventDef(String title, String description,
+                    String stockCode, double shiftPct, int durationMs) {
+        this(title, description, stockCode, shiftPct, durationMs, 1.0);
     }
 
     // new convenience constructor
@@ -22,6 +37,17 @@ public final class EventDef {
         this(title, "", stockCode, shiftPct, durationMs);
     }
 
+    // e.g. "Pipeline Snag (OIL, -3.00%)", the detail text for MarketEvents
+    public String headline() {
+        String h = headline;
+        if (h == null) {
+            h = title + " (" + stockCode.toUpperCase() + ", " +
+                    (shiftPct >= 0 ? "+" : "") + String.format("%.2f", shiftPct) + "%)";
+            headline = h;
+        }
+        return h;
+    }
+
     @Override public String toString() {
         String pol = shiftPct >= 0 ? "positive" : "negative";
         return title + " — " + stockCode.toUpperCase() + " (" + pol + ")";
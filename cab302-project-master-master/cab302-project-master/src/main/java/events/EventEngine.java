@@ -1,18 +1,30 @@
 package events;
 
-import app.demo.Stock;
 import core.Market;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 /**
  * Runs the random market events and makes sure they don't fire too often.
+ *
+ * Single writer: all engine state is only touched by one thread, the engine's
+ * own thread after start() or whoever calls advance() in headless runs. The
+ * public setters can be called from any thread; from elsewhere they are queued
+ * and run in order at the start of the next advance(). Other threads read
+ * through snapshot(), an immutable copy republished after every change, so
+ * readers never lock or copy. A change that moves market shifts publishes its
+ * snapshot inside Market.lock(), so a reader holding that lock sees the shifts
+ * and the active events agree (GameState.captureMarketAndEngine does this).
  */
 public final class EventEngine {
 
     //  simple settings you can tweak
-    // How often the engine checks for a new event.
+    // How often the engine checks for a new event (a repeating task on the timing wheel).
     public static final int TICK_MS = 6_000;                 // every 6 seconds
     // Chance that an event happens on each tick.
     public static final int CHANCE_PCT = 20;                 // 20% chance per tick
@@ -24,6 +36,55 @@ public final class EventEngine {
     public static final long PER_STOCK_COOLDOWN_MS = 180_000;        // 3 minutes
     // How many times a specific (title + stock) can appear in one day.
     public static final int PER_EVENT_MAX_PER_DAY = 1;
+    // Resolution of the timing wheel; timed work fires at most this late.
+    public static final long WHEEL_TICK_MS = 10;
+
+    /**
+     * The tweakable settings above as one value, so headless runs (e.g.
+     * core.ScenarioRunner) can try other numbers. DEFAULTS is what the game uses.
+     */
+    public static final class Config {
+        public static final Config DEFAULTS = new Config(TICK_MS, CHANCE_PCT, MAX_EVENTS_PER_DAY,
+                MIN_GAP_BETWEEN_TRIGGERS_MS, PER_STOCK_COOLDOWN_MS, PER_EVENT_MAX_PER_DAY);
+
+        public final int pollMs;
+        public final int chancePct;
+        public final int maxEventsPerDay;
+        public final long minGapMs;
+        public final long cooldownMs;
+        public final int perEventMaxPerDay;
+
+        public Config(int pollMs, int chancePct, int maxEventsPerDay,
+                      long minGapMs, long cooldownMs, int perEventMaxPerDay) {
+            if (pollMs <= 0) throw new IllegalArgumentException("pollMs must be positive");
+            this.pollMs = pollMs;
+            this.chancePct = chancePct;
+            this.maxEventsPerDay = maxEventsPerDay;
+            this.minGapMs = minGapMs;
+            this.cooldownMs = cooldownMs;
+            this.perEventMaxPerDay = perEventMaxPerDay;
+        }
+
+        /** Copy with one setting changed by name, e.g. with("chancePct", "35"). */
+        public Config with(String key, String value) {
+            long v = Long.parseLong(value.trim());
+            return switch (key) {
+                case "pollMs" -> new Config((int) v, chancePct, maxEventsPerDay, minGapMs, cooldownMs, perEventMaxPerDay);
+                case "chancePct" -> new Config(pollMs, (int) v, maxEventsPerDay, minGapMs, cooldownMs, perEventMaxPerDay);
+                case "maxEventsPerDay" -> new Config(pollMs, chancePct, (int) v, minGapMs, cooldownMs, perEventMaxPerDay);
+                case "minGapMs" -> new Config(pollMs, chancePct, maxEventsPerDay, v, cooldownMs, perEventMaxPerDay);
+                case "cooldownMs" -> new Config(pollMs, chancePct, maxEventsPerDay, minGapMs, v, perEventMaxPerDay);
+                case "perEventMaxPerDay" -> new Config(pollMs, chancePct, maxEventsPerDay, minGapMs, cooldownMs, (int) v);
+                default -> throw new IllegalArgumentException("Unknown engine setting: " + key);
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "pollMs=" + pollMs + " chancePct=" + chancePct + " maxEventsPerDay=" + maxEventsPerDay
+                    + " minGapMs=" + minGapMs + " cooldownMs=" + cooldownMs + " perEventMaxPerDay=" + perEventMaxPerDay;
+        }
+    }
 
     private final Market market;
     private final List<EventDef> eventDefs;      // current pool of possible events
@@ -31,15 +92,30 @@ public final class EventEngine {
     private final Consumer<String> logFn;
     private final Consumer<String> toastFn;
     private final Runnable refreshFn;
-
-    // We use a Swing timer here (not java.util.Timer) so we can pass a lambda easily.
-    private final javax.swing.Timer tickTimer;
+    private final LongSupplier clock;           // wall clock in the game, logical clock in core.Simulation
+    private final Config config;
+
+    // Everything time-based (next trigger check, cooldowns ending, events expiring)
+    // is a task on this wheel; advance() runs whatever is due.
+    private final TimingWheel wheel;
+    // cooldown/expiry tasks scheduled today, cancelled by resetDaily
+    private final List<TimingWheel.Timeout> dayTasks = new ArrayList<>();
+
+    // start() runs the engine on this thread; it sleeps until the wheel's next
+    // deadline or until a command comes in. Null in headless runs.
+    private volatile Thread engineThread;
+    private volatile boolean running;
+    // setter calls from other threads, run in order by the engine's thread
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
 
     // What’s currently active in the world (visible to other parts of the game).
     public static final class ActiveEvent {
         public final EventDef def;
-        public final long endsAtMillis;
-        public boolean effectReverted = false;   // set true if/when we undo the effect
+        public final long endsAtMillis;          // Long.MAX_VALUE = lasts until EOD
+        public volatile boolean effectReverted = false;   // set true if/when we undo the effect
+
+        int key = -1;                            // EligibilityIndex key, so ending it frees the key
+        TimingWheel.Timeout endTask;             // pending durationMs expiry, if any
 
         public ActiveEvent(EventDef def, long endsAtMillis) {
             this.def = def;
@@ -47,23 +123,105 @@ public final class EventEngine {
         }
     }
 
-    private final List<ActiveEvent> activeEvents = new java.util.concurrent.CopyOnWriteArrayList<>();
-    private final Set<String> activeKeys = new HashSet<>(); // tracks "stock|title" currently active
+    /** What other threads see: a consistent, never-changing view of the engine after one change. */
+    public static final class Snapshot {
+        public final long version;                 // goes up by one with every change
+        public final List<ActiveEvent> active;     // unmodifiable
+        public final int eventsToday;
+        public final long lastTriggerAt;           // 0 = nothing yet today
+
+        Snapshot(long version, List<ActiveEvent> active, int eventsToday, long lastTriggerAt) {
+            this.version = version;
+            this.active = active;
+            this.eventsToday = eventsToday;
+            this.lastTriggerAt = lastTriggerAt;
+        }
+    }
+
+    // engine thread only; readers get a copy in the snapshot
+    private final List<ActiveEvent> activeEvents = new ArrayList<>();
+    private volatile Snapshot snapshot = new Snapshot(0, List.of(), 0, 0L);
+
+    // Told about every start/end/revert as it happens, on the engine's thread.
+    private final List<Consumer<EventChange>> changeListeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private long changeSeq = 0L;
 
-    // Cooldown and limit tracking
-    private final Map<String, Long> lastStockTriggerAt = new HashMap<>();     // stock -> last time it fired
-    private final Map<String, Integer> perEventCountToday = new HashMap<>();  // "stock|title" -> count today
+    // Which defs can fire right now: active keys, per-event daily counts and per-stock cooldowns.
+    private final EligibilityIndex index;
     private long lastAnyTriggerAt = 0L;
     private int eventsToday = 0;
 
-    public List<ActiveEvent> getActiveEvents() {
-        return java.util.Collections.unmodifiableList(activeEvents);
+    /** The latest published state; safe from any thread. */
+    public Snapshot snapshot() { return snapshot; }
+
+    public List<ActiveEvent> getActiveEvents() { return snapshot.active; }
+    public int eventsToday() { return snapshot.eventsToday; }
+    public long lastTriggerAt() { return snapshot.lastTriggerAt; }   // 0 = nothing yet today
+
+    // after every change, on the engine's thread
+    private void publish() {
+        snapshot = new Snapshot(snapshot.version + 1, List.copyOf(activeEvents), eventsToday, lastAnyTriggerAt);
+    }
+
+    private boolean onEngineThread() {
+        Thread t = engineThread;
+        return t == null || t == Thread.currentThread();
+    }
+
+    // run now if we're the engine's thread, else queue it for the next advance()
+    private boolean queued(Runnable command) {
+        if (onEngineThread()) return false;
+        post(command);
+        return true;
+    }
+
+    private void post(Runnable command) {
+        commands.add(command);
+        Thread t = engineThread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    private void drainCommands() {
+        Runnable c;
+        while ((c = commands.poll()) != null) c.run();
+    }
+
+    /** Listen for events starting, ending and being reverted at end of day. */
+    public void addChangeListener(Consumer<EventChange> listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<EventChange> listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void emit(EventChange.Kind kind, ActiveEvent ae, long now) {
+        if (changeListeners.isEmpty()) return;
+        EventChange c = new EventChange(++changeSeq, kind, ae, now);
+        for (Consumer<EventChange> l : changeListeners) l.accept(c);
     }
 
     /** Replace the event list while the game is running (optional). */
     public void setEventDefs(List<EventDef> defs) {
+        if (queued(() -> setEventDefs(defs))) return;
         this.eventDefs.clear();
         this.eventDefs.addAll(defs);
+        index.rebuild(this.eventDefs, market);
+    }
+
+    /**
+     * Replace the event list from any thread, e.g. a file watcher. The pool is
+     * compiled here, on the caller's thread, and the engine switches to it at
+     * its next advance() with a linear pass, so a big library doesn't stall
+     * the engine. Today's counts and cooldowns carry over.
+     */
+    public void swapEventDefs(List<EventDef> defs) {
+        EligibilityIndex.Compiled next = index.compile(List.copyOf(defs), market);
+        post(() -> {
+            eventDefs.clear();
+            eventDefs.addAll(Arrays.asList(next.defs));
+            index.install(next, market);
+        });
     }
 
     public EventEngine(
@@ -73,24 +231,105 @@ public final class EventEngine {
             Consumer<String> logFn,
             Consumer<String> toastFn,
             Runnable refreshFn
+    ) {
+        this(market, eventDefs, rng, logFn, toastFn, refreshFn, System::currentTimeMillis);
+    }
+
+    /** Same as above but with a custom clock (e.g. a logical clock for headless runs). */
+    public EventEngine(
+            Market market,
+            List<EventDef> eventDefs,
+            Random rng,
+            Consumer<String> logFn,
+            Consumer<String> toastFn,
+            Runnable refreshFn,
+            LongSupplier clock
+    ) {
+        this(market, eventDefs, rng, logFn, toastFn, refreshFn, clock, Config.DEFAULTS);
+    }
+
+    /** Same again with other settings than the defaults. */
+    public EventEngine(
+            Market market,
+            List<EventDef> eventDefs,
+            Random rng,
+            Consumer<String> logFn,
+            Consumer<String> toastFn,
+            Runnable refreshFn,
+            LongSupplier clock,
+            Config config
     ) {
         this.market = market;
+        this.config = config;
+        this.index = new EligibilityIndex(config.perEventMaxPerDay);
         this.eventDefs = new ArrayList<>(eventDefs);
         this.rng = rng;
         this.logFn = logFn;
         this.toastFn = toastFn;
         this.refreshFn = refreshFn;
+        this.clock = clock;
+        this.index.rebuild(this.eventDefs, market);
 
         // Check for new events on a fixed schedule.
-        this.tickTimer = new javax.swing.Timer(TICK_MS, e -> tryTrigger());
+        long now = clock.getAsLong();
+        this.wheel = new TimingWheel(WHEEL_TICK_MS, now);
+        schedulePoll(now + config.pollMs);
     }
 
-    public void start() {
-        tickTimer.start();
+    public Config config() { return config; }
+
+    private void schedulePoll(long at) {
+        wheel.schedule(at, () -> {
+            schedulePoll(at + config.pollMs);
+            tryTrigger();
+        });
+    }
+
+    /** Run queued commands, then all timed work that is due by the clock's current time. Engine thread only. */
+    public void advance() {
+        drainCommands();
+        wheel.advanceTo(clock.getAsLong());
     }
 
-    public void stop() {
-        tickTimer.stop();
+    /** Run the engine on its own thread until stop(). Listeners and callbacks are called on that thread. */
+    public synchronized void start() {
+        if (engineThread != null) return;
+        running = true;
+        Thread t = new Thread(this::run, "event-engine");
+        t.setDaemon(true);
+        engineThread = t;
+        t.start();
+    }
+
+    // advance, then sleep until the wheel's next deadline or a new command
+    private void run() {
+        while (running) {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                logFn.accept("Engine error: " + e);
+            }
+            long delay = Math.max(1, Math.min(wheel.nextDeadline() - clock.getAsLong(), config.pollMs));
+            if (commands.isEmpty()) LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delay));
+        }
+    }
+
+    /** Stop the engine's thread; the caller then owns the engine, and anything still queued runs now. */
+    public synchronized void stop() {
+        Thread t = engineThread;
+        if (t == null) return;
+        running = false;
+        LockSupport.unpark(t);
+        if (t != Thread.currentThread()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        engineThread = null;
+        drainCommands();
+        publish();
     }
 
     /**
@@ -98,101 +337,151 @@ public final class EventEngine {
      * Cleans up yesterday’s events and resets counters.
      */
     public void resetDaily() {
-        // Undo the impact of anything still active from yesterday.
-        for (ActiveEvent ae : new ArrayList<>(activeEvents)) {
-            Stock s = market.get(ae.def.stockCode);
-            if (s != null) s.addShift(-ae.def.shiftPct);
+        if (queued(this::resetDaily)) return;
+        // Undo the impact of anything still active from yesterday and reset the daily
+        // counters; the shifts and the snapshot change together (see Market.lock).
+        long now = clock.getAsLong();
+        List<ActiveEvent> reverted = new ArrayList<>(activeEvents);
+        synchronized (market.lock()) {
+            for (ActiveEvent ae : reverted) {
+                market.addShift(ae.def.stockCode, -ae.def.shiftPct);
+                ae.effectReverted = true;
+            }
+            activeEvents.clear();
+            eventsToday = 0;
+            lastAnyTriggerAt = 0L;
+            publish();
+        }
+        for (ActiveEvent ae : reverted) {
             logFn.accept("Event ended (EOD): " + ae.def.title + " — " + ae.def.stockCode.toUpperCase());
         }
-        activeEvents.clear();
-        activeKeys.clear();
 
-        // Reset daily counters and cooldown tracking.
-        eventsToday = 0;
-        lastAnyTriggerAt = 0L;
-        lastStockTriggerAt.clear();
-        perEventCountToday.clear();
+        // Yesterday's expiries and cooldowns no longer apply.
+        for (TimingWheel.Timeout t : dayTasks) t.cancel();
+        dayTasks.clear();
+        index.resetDay(market);
+
+        for (ActiveEvent ae : reverted) emit(EventChange.Kind.REVERTED, ae, now);
+        refreshFn.run();
+    }
+
+    /**
+     * Put back today's counters from a saved game. msSinceLastTrigger < 0 means
+     * nothing has fired today.
+     */
+    public void restoreCounters(int eventsToday, long msSinceLastTrigger) {
+        if (queued(() -> restoreCounters(eventsToday, msSinceLastTrigger))) return;
+        this.eventsToday = eventsToday;
+        this.lastAnyTriggerAt = msSinceLastTrigger < 0 ? 0L : clock.getAsLong() - msSinceLastTrigger;
+        publish();
+    }
 
+    /**
+     * Put back an event that was active when the game was saved. Its shift is
+     * already in the restored market, so it isn't applied again, and no STARTED
+     * change is sent. If the def is in today's pool it counts as used and its
+     * stock's cooldown starts over. remainingMs = Long.MAX_VALUE lasts until EOD.
+     */
+    public void restoreActive(EventDef def, long remainingMs) {
+        if (queued(() -> restoreActive(def, remainingMs))) return;
+        long now = clock.getAsLong();
+        long endsAt = remainingMs == Long.MAX_VALUE ? Long.MAX_VALUE : now + Math.max(0, remainingMs);
+        ActiveEvent active = new ActiveEvent(def, endsAt);
+
+        int defIdx = index.find(def.stockCode, def.title);
+        if (defIdx >= 0) {
+            active.key = index.keyOf(defIdx);
+            index.markTriggered(defIdx);
+            int stockId = index.stockOf(defIdx);
+            dayTasks.add(wheel.schedule(now + config.cooldownMs, () -> index.endCooldown(stockId)));
+        }
+        if (endsAt != Long.MAX_VALUE) {
+            active.endTask = wheel.schedule(endsAt, () -> expire(active));
+            dayTasks.add(active.endTask);
+        }
+        activeEvents.add(active);
+        publish();
         refreshFn.run();
     }
 
     // core loop
 
-    private void tryTrigger() {
+    /** One polling step, run every pollMs from the wheel. Engine thread only. */
+    public void tryTrigger() {
         if (eventDefs.isEmpty()) return;
 
         // Stop if we've reached today's limit.
-        if (eventsToday >= MAX_EVENTS_PER_DAY) return;
+        if (eventsToday >= config.maxEventsPerDay) return;
 
-        long now = System.currentTimeMillis();
+        long now = clock.getAsLong();
 
         // Too soon since the last event? Skip this tick.
-        if (now - lastAnyTriggerAt < MIN_GAP_BETWEEN_TRIGGERS_MS) return;
+        if (now - lastAnyTriggerAt < config.minGapMs) return;
 
         // Roll the dice.
-        if (rng.nextInt(100) >= CHANCE_PCT) return;
-
-        // Pick something that isn't already active and passes all limits.
-        List<EventDef> pool = new ArrayList<>(eventDefs);
-        Collections.shuffle(pool, rng);
+        if (rng.nextInt(100) >= config.chancePct) return;
 
-        EventDef chosen = null;
-        for (EventDef ev : pool) {
-            String stock = ev.stockCode.toLowerCase();
-            String key = stock + "|" + ev.title;
-
-            // Already running.
-            if (activeKeys.contains(key)) continue;
-
-            // This exact event has already been used too many times today.
-            int used = perEventCountToday.getOrDefault(key, 0);
-            if (used >= PER_EVENT_MAX_PER_DAY) continue;
-
-            // The same stock fired too recently.
-            long lastForStock = lastStockTriggerAt.getOrDefault(stock, 0L);
-            if (now - lastForStock < PER_STOCK_COOLDOWN_MS) continue;
-
-            // Ignore events for unknown stocks.
-            if (market.get(ev.stockCode) == null) continue;
-
-            chosen = ev;
-            break;
-        }
+        // Pick something that isn't already active and passes all limits,
+        // weighted by EventDef.weight among everything that's eligible right now.
+        if (index.isStale(market)) index.rebuild(eventDefs, market);
+        if (index.eligibleCount() == 0) return;
 
-        if (chosen != null) trigger(chosen);
+        trigger(index.pick(rng));
     }
 
-    private void trigger(EventDef ev) {
-        Stock s = market.get(ev.stockCode);
-        if (s == null) {
-            logFn.accept("Skipped event " + ev + " (unknown stock)");
-            return;
-        }
-
-        // Apply the effect and keep it until the end of the day.
-        s.addShift(ev.shiftPct);
+    private void trigger(int defIdx) {
+        EventDef ev = index.def(defIdx);
 
-        // We keep a timestamp but set it to "forever" to mark it as lasting until EOD.
-        long endsAt = Long.MAX_VALUE;
+        long now = clock.getAsLong();
+        long endsAt = ev.durationMs > 0 ? now + ev.durationMs : Long.MAX_VALUE;
         ActiveEvent active = new ActiveEvent(ev, endsAt);
 
-        String stock = ev.stockCode.toLowerCase();
-        String key = stock + "|" + ev.title;
-
-        activeEvents.add(active);
-        activeKeys.add(key);
-
-        // Update counters and cooldowns.
-        eventsToday++;
-        long now = System.currentTimeMillis();
-        lastAnyTriggerAt = now;
-        lastStockTriggerAt.put(stock, now);
-        perEventCountToday.merge(key, 1, Integer::sum);
+        // the shift and the snapshot that lists it change together (see Market.lock)
+        synchronized (market.lock()) {
+            // Apply the effect for durationMs (or until the end of the day if it has none).
+            // The code can be a stock or, with a FactorModel, a factor like "energy".
+            if (!market.addShift(ev.stockCode, ev.shiftPct)) {
+                logFn.accept("Skipped event " + ev + " (unknown stock)");
+                return;
+            }
+
+            active.key = index.keyOf(defIdx);
+            if (ev.durationMs > 0) {
+                active.endTask = wheel.schedule(endsAt, () -> expire(active));
+                dayTasks.add(active.endTask);
+            }
+            activeEvents.add(active);
+
+            // Update counters and cooldowns.
+            eventsToday++;
+            lastAnyTriggerAt = now;
+            index.markTriggered(defIdx);
+            int stockId = index.stockOf(defIdx);
+            dayTasks.add(wheel.schedule(now + config.cooldownMs, () -> index.endCooldown(stockId)));
+            publish();
+        }
 
         // Basic logging/notification.
+        String lasts = ev.durationMs > 0 ? "for " + (ev.durationMs / 1000) + "s" : "until EOD";
         logFn.accept("Event: " + ev.title + " — " + ev.description + " [" +
-                ev.stockCode.toUpperCase() + " shift " + ev.shiftPct + "pp; stays until EOD]");
+                ev.stockCode.toUpperCase() + " shift " + ev.shiftPct + "pp; " + lasts + "]");
         toastFn.accept(ev.title + " (" + ev.stockCode.toUpperCase() + ")");
         refreshFn.run();
+        emit(EventChange.Kind.STARTED, active, now);
+    }
+
+    // durationMs is up: undo the shift and free the event's key
+    private void expire(ActiveEvent ae) {
+        if (!activeEvents.remove(ae)) return;
+        synchronized (market.lock()) {
+            market.addShift(ae.def.stockCode, -ae.def.shiftPct);
+            ae.effectReverted = true;
+            publish();
+        }
+        if (ae.key >= 0) index.endKey(ae.key);
+
+        logFn.accept("Event ended: " + ae.def.title + " — " + ae.def.stockCode.toUpperCase());
+        refreshFn.run();
+        emit(EventChange.Kind.ENDED, ae, clock.getAsLong());
     }
 }
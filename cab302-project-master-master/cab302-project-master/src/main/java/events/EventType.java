@@ -0,0 +1,26 @@
+package events;
+
+// what kind of news a MarketEvent is; worked out once per EventDef
+public enum EventType {
+    OIL_SUPPLY,
+    OPEC,
+    RATE_HIKE,
+    EARNINGS,
+    NEWS;
+
+    // keyword rules from the title (and stock, for oil)
+    static EventType classify(String title, String stockCode) {
+        String t = title.toLowerCase();
+        if (t.contains("pipeline") || t.contains("refinery") ||
+                t.contains("throughput") || t.contains("outage")) {
+            return OIL_SUPPLY;
+        } else if (t.contains("opec") || stockCode.equalsIgnoreCase("oil")) {
+            return OPEC;
+        } else if (t.contains("rate") || t.contains("hike")) {
+            return RATE_HIKE;
+        } else if (t.contains("earning") || t.contains("beat")) {
+            return EARNINGS;
+        }
+        return NEWS;
+    }
+}
@@ -1,23 +1,65 @@
 package events;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 public final class MarketEvent {
-    public final String type;
+    // wall clock in epoch nanos without allocating: fixed offset + nanoTime
+    private static final long EPOCH_NANOS_BASE = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    public final EventType type;
     public final String country;
-    public final String detail;
-    public final LocalDateTime when;
+    public final long whenEpochNanos;
+
+    private final EventDef def;   // detail comes from here when set
+    private String detail;
+    private String textKey;       // key() for events without a def, built once
 
-    public MarketEvent(String type, String country, String detail) {
+    public MarketEvent(EventType type, String country, String detail) {
         this.type = type;
         this.country = country;
         this.detail = detail;
-        this.when = LocalDateTime.now();
+        this.def = null;
+        this.whenEpochNanos = nowEpochNanos();
+    }
+
+    // from an engine event; the detail text is the def's, built the first time anyone asks
+    MarketEvent(EventDef def, String country) {
+        this.type = def.type;
+        this.country = country;
+        this.def = def;
+        this.whenEpochNanos = nowEpochNanos();
+    }
+
+    public static long nowEpochNanos() {
+        return EPOCH_NANOS_BASE + System.nanoTime();
+    }
+
+    public String detail() {
+        if (detail == null && def != null) detail = def.headline();
+        return detail;
+    }
+
+    /**
+     * What repeats of this event have in common, for coalescing. For engine
+     * events it's the def itself, so no text gets built; other events fall
+     * back to their type, country and detail.
+     */
+    public Object key() {
+        if (def != null) return def;
+        String k = textKey;
+        if (k == null) textKey = k = type.name() + '|' + country + '|' + detail;
+        return k;
+    }
+
+    public LocalDateTime when() {
+        Instant at = Instant.ofEpochSecond(0, whenEpochNanos);
+        return LocalDateTime.ofInstant(at, ZoneId.systemDefault());
     }
 
     @Override
     public String toString() {
-        return type + " [" + country + "]: " + detail;
+        return type + " [" + country + "]: " + detail();
     }
 }
-
@@ -1,13 +1,19 @@
 package events;
 
+import app.demo.EventLibrary;
+import app.demo.EventLibraryWatcher;
 import app.demo.Stock;
+import core.Analytics;
+import core.FactorModel;
 import core.Market;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.util.Duration;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 public final class MarketEventsManager {
 
@@ -15,39 +21,127 @@ public final class MarketEventsManager {
 
     private final Market market = new Market();
     private final EventEngine engine;
-    private Timeline bridgeTimer;
+    private final Analytics analytics;   // updated on whichever thread ticks the market
+    private long lastSeq = 0L;   // last engine change we handled
 
-    private final Set<String> liveKeys = new HashSet<>();
-    private final List<MarketEvent> todaysEvents = new ArrayList<>();
+    // written from the engine's thread as events start, read by the UI
+    private final List<MarketEvent> todaysEvents = new CopyOnWriteArrayList<>();
 
     private final Random rng = new Random();
-    private final List<EventDef> pool = new ArrayList<>();
+    // swapped whole when the library file is reloaded, never edited in place
+    private volatile List<EventDef> pool;
+    private volatile List<EventDef> todaysDefs = List.of();
+    private EventLibraryWatcher watcher;
+
+    // -Devents.file=path/to/events.csv plays that file instead of the built-in pool and reloads it on save
+    public static final String EVENTS_FILE_PROPERTY = "events.file";
+    static final String DEFAULT_POOL = "/hub-events.csv";
 
     public MarketEventsManager() {
+        this(new Random(), System::currentTimeMillis);
+    }
+
+    // package-private so benchmarks can drive the engine with their own rng and clock
+    MarketEventsManager(Random engineRng, LongSupplier clock) {
         // base stocks
         market.add(new Stock("iron", 12.00));
         market.add(new Stock("oil", 75.00));
         market.add(new Stock("bhp", 24.00));
+        market.setFactorModel(defaultFactors(market));
+        analytics = new Analytics(market);
+        analytics.trackPair("iron", "bhp");   // both load on steel
 
         Consumer<String> logFn = s -> System.out.println("[EVENT] " + s);
         Consumer<String> toastFn = s -> {};
         Runnable refreshFn = () -> {};
 
-        engine = new EventEngine(market, Collections.emptyList(), new Random(), logFn, toastFn, refreshFn);
-
-        // default event pool
-        pool.addAll(List.of(
-                new EventDef("Trade Dispute",   "Tariffs escalate; demand weak",   "iron", -8.0, 10_000),
-                new EventDef("OPEC Guidance",   "Production guidance due",         "oil",  +5.0, 10_000),
-                new EventDef("Earnings Beat",   "Strong results pre-market",       "bhp",  +4.0, 10_000),
-                new EventDef("Pipeline Snag",   "Throughput cut weighs on supply", "oil",  -3.0, 10_000),
-                new EventDef("China Stimulus",  "Infrastructure push lifting steel","iron", +6.0, 10_000),
-                new EventDef("Mine Safety Audit","Temporary halt; output risk",     "bhp",  -4.0, 10_000)
-        ));
+        engine = new EventEngine(market, Collections.emptyList(), engineRng, logFn, toastFn, refreshFn, clock);
+        engine.addChangeListener(this::onEngineChange);
+
+        // event pool (hub-events.csv), or a file to edit live
+        pool = checked(EventLibrary.fromResource(DEFAULT_POOL), DEFAULT_POOL);
+        String file = System.getProperty(EVENTS_FILE_PROPERTY);
+        if (file != null) watch(Path.of(file));
+    }
+
+    /**
+     * Play the events in this CSV and reload them whenever it's saved. A file
+     * that doesn't parse keeps the current pool.
+     */
+    public void watch(Path file) {
+        try {
+            stopWatching();
+            watcher = new EventLibraryWatcher(file, this::onLibraryReloaded);
+            watcher.reload();
+        } catch (IOException e) {
+            System.out.println("[EVENTS] can't watch " + file + ": " + e.getMessage());
+        }
+    }
+
+    public void stopWatching() {
+        if (watcher == null) return;
+        try {
+            watcher.close();
+        } catch (IOException ignored) {
+            // nothing left to clean up
+        }
+        watcher = null;
+    }
+
+    // on the watcher's thread: swap the pool and hand the engine today's picks from it
+    // (synchronized with rollToday so a reload can't bring back yesterday's picks)
+    private synchronized void onLibraryReloaded(List<EventDef> defs) {
+        List<EventDef> next = checked(defs, "reload");
+        if (next.isEmpty()) return;
+        pool = next;
+
+        // today's picks keep going, with their numbers from the new file; dropped ones stop
+        Map<String, EventDef> byKey = new HashMap<>();
+        for (EventDef d : next) byKey.put(d.stockCode + "|" + d.title, d);
+        List<EventDef> today = new ArrayList<>();
+        for (EventDef d : todaysDefs) {
+            EventDef now = byKey.get(d.stockCode + "|" + d.title);
+            if (now != null) today.add(now);
+        }
+        todaysDefs = List.copyOf(today);
+        engine.swapEventDefs(todaysDefs);
+        System.out.println("[EVENTS] reloaded " + next.size() + " events");
+    }
+
+    // drop defs for stocks this market doesn't have
+    private List<EventDef> checked(List<EventDef> defs, String source) {
+        List<String> problems = new ArrayList<>();
+        List<EventDef> ok = EventLibrary.validate(defs, market, problems);
+        for (String p : problems) System.out.println("[EVENTS] " + source + " " + p);
+        return List.copyOf(ok);
+    }
+
+    // iron -> steel, oil -> energy, bhp mostly steel with some energy; both sit on a broad market factor
+    private static FactorModel defaultFactors(Market market) {
+        FactorModel fm = new FactorModel(
+                new String[] {"market", "steel", "energy"},
+                new double[] {0.08, 0.10, 0.12},
+                new double[][] {
+                        {1.0, 0.5, 0.4},
+                        {0.5, 1.0, 0.3},
+                        {0.4, 0.3, 1.0}});
+        int iron = market.book().id("iron"), oil = market.book().id("oil"), bhp = market.book().id("bhp");
+        int mkt = fm.factor("market"), steel = fm.factor("steel"), energy = fm.factor("energy");
+        for (int id : new int[] {iron, oil, bhp}) fm.setLoading(id, mkt, 0.5);
+        fm.setLoading(iron, steel, 1.0);
+        fm.setLoading(bhp, steel, 0.7);
+        fm.setLoading(bhp, energy, 0.2);
+        fm.setLoading(oil, energy, 1.0);
+        return fm;
     }
 
     // subscribe to events
-    public void subscribe(Consumer<MarketEvent> listener) { bus.subscribe(listener); }
+    public EventBus.Subscription subscribe(Consumer<MarketEvent> listener) { return bus.subscribe(listener); }
+
+    // subscribe with delivery on another thread, e.g. Platform::runLater
+    public EventBus.Subscription subscribe(Consumer<MarketEvent> listener, Executor executor) {
+        return bus.subscribe(listener, executor);
+    }
 
     // publisher hook
     public Consumer<MarketEvent> publisher() { return bus::publish; }
@@ -56,7 +150,6 @@ public final class MarketEventsManager {
     public void start() {
         engine.start();
         rollToday(3);
-        startBridge();
     }
 
     // move to next day
@@ -65,22 +158,20 @@ public final class MarketEventsManager {
         rollToday(3);
     }
 
+    public EventEngine engine() { return engine; }
+    public Market market() { return market; }
+    public Analytics analytics() { return analytics; }
+
     // read-only list of today’s events
     public List<MarketEvent> getTodaysEvents() {
         return Collections.unmodifiableList(todaysEvents);
     }
 
-    private void startBridge() {
-        if (bridgeTimer != null) bridgeTimer.stop();
-        bridgeTimer = new Timeline(new KeyFrame(Duration.millis(500), e -> syncFromEngine()));
-        bridgeTimer.setCycleCount(Timeline.INDEFINITE);
-        bridgeTimer.play();
-    }
-
-    private void rollToday(int n) {
+    private synchronized void rollToday(int n) {
         List<EventDef> all = new ArrayList<>(pool);
         Collections.shuffle(all, rng);
-        List<EventDef> todaysDefs = all.subList(0, Math.min(n, all.size()));
+        List<EventDef> todaysDefs = List.copyOf(all.subList(0, Math.min(n, all.size())));
+        this.todaysDefs = todaysDefs;
         engine.setEventDefs(todaysDefs);
 
         todaysEvents.clear();
@@ -90,39 +181,19 @@ public final class MarketEventsManager {
         todaysEvents.forEach(bus::publish);
     }
 
-    private void syncFromEngine() {
-        Set<String> now = new HashSet<>();
-        for (EventEngine.ActiveEvent ae : engine.getActiveEvents()) {
-            String key = ae.def.stockCode + "|" + ae.def.title;
-            now.add(key);
-            if (!liveKeys.contains(key)) {
-                MarketEvent evt = mapToMarketEvent(ae.def);
-                bus.publish(evt);
-                if (todaysEvents.size() < 5) todaysEvents.add(evt);
-            }
-        }
-        liveKeys.clear();
-        liveKeys.addAll(now);
+    // pushed by the engine the moment something changes; only new events go out on the bus
+    void onEngineChange(EventChange change) {
+        if (change.seq <= lastSeq) return;   // already seen
+        lastSeq = change.seq;
+        if (change.kind != EventChange.Kind.STARTED) return;
+
+        MarketEvent evt = mapToMarketEvent(change.event.def);
+        bus.publish(evt);
+        if (todaysEvents.size() < 5) todaysEvents.add(evt);
     }
 
+    // type and detail text are cached on the def, so this is one small object
     private static MarketEvent mapToMarketEvent(EventDef def) {
-        String title = def.title.toLowerCase();
-        String type;
-        if (title.contains("pipeline") || title.contains("refinery") ||
-                title.contains("throughput") || title.contains("outage")) {
-            type = "OIL_SUPPLY";
-        } else if (title.contains("opec") || def.stockCode.equalsIgnoreCase("oil")) {
-            type = "OPEC";
-        } else if (title.contains("rate") || title.contains("hike")) {
-            type = "RATE_HIKE";
-        } else if (title.contains("earning") || title.contains("beat")) {
-            type = "EARNINGS";
-        } else {
-            type = "NEWS";
-        }
-
-        String detail = def.title + " (" + def.stockCode.toUpperCase() + ", " +
-                (def.shiftPct >= 0 ? "+" : "") + String.format("%.2f", def.shiftPct) + "%)";
-        return new MarketEvent(type, "GLOBAL", detail);
+        return new MarketEvent(def, "GLOBAL");
     }
 }
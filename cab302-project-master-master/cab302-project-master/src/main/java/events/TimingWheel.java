@@ -0,0 +1,186 @@
+package events;
+
+/**
+ * Hierarchical timing wheel for the event engine's timed work (the next trigger
+ * check, per-stock cooldowns ending, events running out their durationMs).
+ *
+ * Time is cut into ticks of {@code tickMs}. Level 0 has one slot per tick for the
+ * next 64 ticks, level 1 one slot per 64 ticks, and so on for 4 levels; when time
+ * reaches a higher slot its tasks are moved down a level. Scheduling and
+ * cancelling are O(1), and advanceTo() jumps straight to the next occupied slot
+ * (found with a bitmask per level), so an idle wheel costs nothing however far
+ * the clock moves. Tasks fire no earlier than their due time, and at most one
+ * tick late.
+ *
+ * Not thread-safe: schedule, cancel and advance from the engine's thread only.
+ */
+public final class TimingWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;          // 64
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;                  // 64^4 ticks ahead before we re-cascade
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    /** Handle for a scheduled task; cancel() unlinks it in O(1). */
+    public static final class Timeout {
+        private final long dueAt;
+        private final long dueTick;
+        private final Runnable task;
+        private TimingWheel wheel;   // null once fired or cancelled
+        private int level, slot;
+        private Timeout prev, next;
+
+        private Timeout(long dueAt, long dueTick, Runnable task) {
+            this.dueAt = dueAt;
+            this.dueTick = dueTick;
+            this.task = task;
+        }
+
+        public long dueAt() { return dueAt; }
+        public boolean isPending() { return wheel != null; }
+
+        public boolean cancel() {
+            if (wheel == null) return false;
+            wheel.unlink(this);
+            wheel.size--;
+            wheel = null;
+            return true;
+        }
+    }
+
+    private final long tickMs;
+    private final Timeout[][] heads = new Timeout[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];   // bit s set = slot s has tasks
+    private long currentTick;                           // next tick to process
+    private int size = 0;
+
+    public TimingWheel(long tickMs, long startMs) {
+        if (tickMs <= 0) throw new IllegalArgumentException("tickMs must be positive");
+        this.tickMs = tickMs;
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+    }
+
+    public int size() { return size; }
+    public long tickMs() { return tickMs; }
+
+    /** Run {@code task} once the clock passed to advanceTo reaches {@code dueAt}. */
+    public Timeout schedule(long dueAt, Runnable task) {
+        long dueTick = -Math.floorDiv(-dueAt, tickMs);   // ceil, so we never fire early
+        Timeout t = new Timeout(dueAt, dueTick, task);
+        insert(t);
+        size++;
+        return t;
+    }
+
+    /**
+     * Earliest time something may need doing (a task firing or a higher slot
+     * cascading), or Long.MAX_VALUE if the wheel is empty. Good for arming a
+     * one-shot timer.
+     */
+    public long nextDeadline() {
+        long tick = nextActiveTick();
+        return tick == Long.MAX_VALUE ? tick : tick * tickMs;
+    }
+
+    /** Fire everything due at or before {@code nowMs}. Tasks may schedule more tasks. */
+    public void advanceTo(long nowMs) {
+        long target = Math.floorDiv(nowMs, tickMs);
+        while (size > 0) {
+            long tick = nextActiveTick();
+            if (tick > target) break;
+            currentTick = tick;
+            cascade(tick);
+            fire(tick);
+            currentTick = tick + 1;
+        }
+        if (currentTick <= target) currentTick = target + 1;
+    }
+
+    private void insert(Timeout t) {
+        long due = Math.max(t.dueTick, currentTick);
+        long delta = due - currentTick;
+        if (delta >= SPAN) due = currentTick + SPAN - 1;   // too far out: park at the top, re-cascade later
+
+        int level = 0;
+        while (level < LEVELS - 1 && (due - currentTick) >= (1L << (BITS * (level + 1)))) level++;
+        int slot = (int) ((due >>> (BITS * level)) & MASK);
+
+        t.wheel = this;
+        t.level = level;
+        t.slot = slot;
+        t.prev = null;
+        t.next = heads[level][slot];
+        if (t.next != null) t.next.prev = t;
+        heads[level][slot] = t;
+        occupied[level] |= 1L << slot;
+    }
+
+    private void unlink(Timeout t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else heads[t.level][t.slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        if (heads[t.level][t.slot] == null) occupied[t.level] &= ~(1L << t.slot);
+        t.prev = t.next = null;
+    }
+
+    // detach a whole slot and return its list
+    private Timeout take(int level, int slot) {
+        Timeout head = heads[level][slot];
+        heads[level][slot] = null;
+        occupied[level] &= ~(1L << slot);
+        return head;
+    }
+
+    // at a level boundary, push that level's slot down (highest level first)
+    private void cascade(long tick) {
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((tick & ((1L << (BITS * level)) - 1)) != 0) continue;
+            int slot = (int) ((tick >>> (BITS * level)) & MASK);
+            Timeout t = take(level, slot);
+            while (t != null) {
+                Timeout next = t.next;
+                insert(t);
+                t = next;
+            }
+        }
+    }
+
+    // one at a time off the slot head, so a task may cancel or schedule others safely
+    private void fire(long tick) {
+        int slot = (int) (tick & MASK);
+        Timeout t;
+        while ((t = heads[0][slot]) != null) {
+            unlink(t);
+            if (t.dueTick <= tick) {
+                t.wheel = null;
+                size--;
+                t.task.run();
+            } else {
+                insert(t);   // parked overflow task, not due yet
+            }
+        }
+    }
+
+    // first tick at or after currentTick where some slot needs processing
+    private long nextActiveTick() {
+        long best = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            long occ = occupied[level];
+            if (occ == 0) continue;
+            int shift = BITS * level;
+            int cur = (int) ((currentTick >>> shift) & MASK);
+            long rotation = (currentTick >>> (shift + BITS)) << (shift + BITS);
+
+            // A higher level's current slot is still pending only if we sit exactly on its
+            // boundary (we skipped here while idle); otherwise it belongs to the next rotation.
+            boolean onBoundary = (currentTick & ((1L << shift) - 1)) == 0;
+            int from = onBoundary ? cur : cur + 1;
+            long ahead = from >= SLOTS ? 0 : occ & (-1L << from);
+            long tick = ahead != 0
+                    ? rotation + ((long) Long.numberOfTrailingZeros(ahead) << shift)
+                    : rotation + (1L << (shift + BITS)) + ((long) Long.numberOfTrailingZeros(occ) << shift);
+            if (tick < best) best = tick;
+        }
+        return best;
+    }
+}
@@ -11,6 +11,7 @@ module demo {
 
 
     requires java.desktop;
+    requires static jdk.incubator.vector;  // optional SIMD tick kernel, see core.TickKernels
 
 
     opens app.demo to javafx.fxml;
@@ -27,4 +28,5 @@ module demo {
     opens app.demo.data to javafx.fxml;
     exports start;
     opens start to javafx.fxml;
+    exports save;
 }
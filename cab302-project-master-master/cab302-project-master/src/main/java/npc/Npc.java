@@ -185,11 +185,11 @@ public final class Npc {
                 for (MarketEvent evt : todaysEvents) {
                     if (shown > 0) sb.append(", ");
                     sb.append(switch (evt.type) {
-                        case "RATE_HIKE" -> "rate chatter (" + evt.country + ")";
-                        case "OPEC"      -> "OPEC signals";
-                        case "EARNINGS"  -> "earnings (" + evt.detail + ")";
-                        case "NEWS"      -> "headline risk (" + evt.country + ")";
-                        default          -> evt.type.toLowerCase();
+                        case RATE_HIKE -> "rate chatter (" + evt.country + ")";
+                        case OPEC      -> "OPEC signals";
+                        case EARNINGS  -> "earnings (" + evt.detail() + ")";
+                        case NEWS      -> "headline risk (" + evt.country + ")";
+                        default          -> evt.type.name().toLowerCase();
                     });
                     shown++; if (shown == 3) break;
                 }
@@ -0,0 +1,185 @@
+package save;
+
+import app.demo.Task;
+import app.demo.TaskManager;
+import core.FactorModel;
+import core.Market;
+import core.Portfolio;
+import core.PriceBook;
+import events.EventDef;
+import events.EventEngine;
+import npc.Npc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything a saved game holds, as plain fields. The hub fills one of these
+ * every in-game minute and SaveGame writes it; loading goes the other way.
+ */
+public final class GameState {
+
+    // hub
+    public double cash;
+    public int reputation;
+    public int dailyRepDelta;
+    public int minuteOfDay;          // simTime, e.g. 9:00 = 540
+
+    // npc day flags and audit state
+    public boolean briefingShownToday;
+    public boolean npc2VisitShownToday;
+    public boolean socialiteShownToday;
+    public boolean gambledToday;
+    public boolean gambledSinceLastAudit;
+    public boolean auditScheduledToday;
+    public int auditMinute = -1;     // -1 = no audit time set
+    public int daysUntilNextAudit;
+
+    // market, one row per instrument in book order
+    public String[] codes = new String[0];
+    public double[] price = new double[0];
+    public double[] lastPrice = new double[0];
+    public double[] shiftPct = new double[0];
+    // player's holdings, same rows (open orders aren't saved; their reservations just go away)
+    public long[] shares = new long[0];
+    public double[] avgCost = new double[0];
+    // event shifts on sector factors, by factor index (empty without a FactorModel)
+    public double[] factorShift = new double[0];
+
+    // event engine
+    public int eventsToday;
+    public long msSinceLastTrigger = -1;   // -1 = nothing fired today
+    public final List<ActiveEventState> active = new ArrayList<>();
+
+    // tasks
+    public final List<TaskState> tasks = new ArrayList<>();
+    public final List<String> taskKeys = new ArrayList<>();
+
+    public static final class TaskState {
+        public final String text;
+        public final boolean done;
+        public TaskState(String text, boolean done) { this.text = text; this.done = done; }
+    }
+
+    public static final class ActiveEventState {
+        public final EventDef def;
+        public final long remainingMs;   // Long.MAX_VALUE = until EOD
+        public ActiveEventState(EventDef def, long remainingMs) { this.def = def; this.remainingMs = remainingMs; }
+    }
+
+    /**
+     * Market, holdings and engine in one go, under Market.lock() so an event
+     * starting or ending on the engine's thread can't land between the shifts
+     * and the active list (a shift saved without its event would never be undone).
+     */
+    public void captureMarketAndEngine(Market market, Portfolio portfolio, EventEngine engine, long nowMs) {
+        synchronized (market.lock()) {
+            captureMarket(market);
+            capturePositions(portfolio);
+            captureEngine(engine, nowMs);
+        }
+    }
+
+    public void captureMarket(Market market) {
+        PriceBook book = market.book();
+        int n = book.size();
+        codes = new String[n];
+        for (int id = 0; id < n; id++) codes[id] = book.code(id);
+        price = java.util.Arrays.copyOf(book.prices(), n);
+        lastPrice = java.util.Arrays.copyOf(book.lastPrices(), n);
+        shiftPct = java.util.Arrays.copyOf(book.shiftPcts(), n);
+        FactorModel fm = market.factors();
+        factorShift = new double[fm == null ? 0 : fm.size()];
+        for (int f = 0; f < factorShift.length; f++) factorShift[f] = fm.shift(f);
+    }
+
+    // rows are matched by code; instruments this market doesn't have are skipped
+    public void applyMarket(Market market) {
+        PriceBook book = market.book();
+        for (int i = 0; i < codes.length; i++) {
+            int id = book.id(codes[i]);
+            if (id < 0) continue;
+            book.setPrice(id, price[i]);
+            book.setLastPrice(id, lastPrice[i]);
+            book.setShiftPct(id, shiftPct[i]);
+        }
+        FactorModel fm = market.factors();
+        if (fm != null) {
+            for (int f = 0; f < factorShift.length && f < fm.size(); f++) fm.setShift(f, factorShift[f]);
+        }
+    }
+
+    // call after captureMarket so the rows line up
+    public void capturePositions(Portfolio portfolio) {
+        int n = codes.length;
+        shares = new long[n];
+        avgCost = new double[n];
+        for (int id = 0; id < n; id++) {
+            shares[id] = portfolio.position(id);
+            avgCost[id] = portfolio.avgCost(id);
+        }
+    }
+
+    public void applyPositions(Portfolio portfolio, Market market) {
+        PriceBook book = market.book();
+        for (int i = 0; i < codes.length && i < shares.length; i++) {
+            int id = book.id(codes[i]);
+            if (id >= 0) portfolio.setPosition(id, shares[i], avgCost[i]);
+        }
+    }
+
+    public void captureEngine(EventEngine engine, long nowMs) {
+        EventEngine.Snapshot snap = engine.snapshot();   // one view of the engine; see captureMarketAndEngine for the market too
+        eventsToday = snap.eventsToday;
+        msSinceLastTrigger = snap.lastTriggerAt == 0 ? -1 : nowMs - snap.lastTriggerAt;
+        active.clear();
+        for (EventEngine.ActiveEvent ae : snap.active) {
+            long remaining = ae.endsAtMillis == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, ae.endsAtMillis - nowMs);
+            active.add(new ActiveEventState(ae.def, remaining));
+        }
+    }
+
+    public void applyEngine(EventEngine engine) {
+        engine.restoreCounters(eventsToday, msSinceLastTrigger);
+        for (ActiveEventState a : active) engine.restoreActive(a.def, a.remainingMs);
+    }
+
+    public void captureTasks(TaskManager tm) {
+        tasks.clear();
+        for (Task t : tm.getTasks()) tasks.add(new TaskState(t.getText(), t.isDone()));
+        taskKeys.clear();
+        taskKeys.addAll(tm.getDayKeys());
+    }
+
+    public void applyTasks(TaskManager tm) {
+        List<Task> restored = new ArrayList<>();
+        for (TaskState ts : tasks) {
+            Task t = new Task(ts.text);
+            if (ts.done) t.markDone();
+            restored.add(t);
+        }
+        tm.restore(restored, taskKeys);
+    }
+
+    public void captureNpc(Npc.Controller npc) {
+        briefingShownToday = npc.briefingShownToday;
+        npc2VisitShownToday = npc.npc2VisitShownToday;
+        socialiteShownToday = npc.socialiteShownToday;
+        gambledToday = npc.gambledToday;
+        gambledSinceLastAudit = npc.gambledSinceLastAudit;
+        auditScheduledToday = npc.auditScheduledToday;
+        auditMinute = npc.auditTime == null ? -1 : npc.auditTime.toSecondOfDay() / 60;
+        daysUntilNextAudit = npc.daysUntilNextAudit;
+    }
+
+    public void applyNpc(Npc.Controller npc) {
+        npc.briefingShownToday = briefingShownToday;
+        npc.npc2VisitShownToday = npc2VisitShownToday;
+        npc.socialiteShownToday = socialiteShownToday;
+        npc.gambledToday = gambledToday;
+        npc.gambledSinceLastAudit = gambledSinceLastAudit;
+        npc.auditScheduledToday = auditScheduledToday;
+        npc.auditTime = auditMinute < 0 ? null : java.time.LocalTime.ofSecondOfDay(auditMinute * 60L);
+        npc.daysUntilNextAudit = daysUntilNextAudit;
+    }
+}
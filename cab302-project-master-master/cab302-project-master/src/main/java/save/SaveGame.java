@@ -0,0 +1,345 @@
+package save;
+
+import events.EventDef;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Save file = one full snapshot followed by small delta frames, one per
+ * autosave. A delta only carries the market rows and tasks that changed since
+ * the previous save (hub, NPC and engine state are a few dozen bytes, so they
+ * always go in), and is appended without rewriting the file. Every
+ * FULL_EVERY saves the file is rewritten as a single full snapshot.
+ *
+ * Each frame is [byte kind][int length][payload][int CRC32C of payload]. Loading
+ * streams through the frames in order and stops at the first torn one, so a
+ * crash mid-autosave just loses that minute. The torn tail is cut off the file
+ * then, so later deltas don't end up behind it.
+ */
+public final class SaveGame {
+    public static final String DEFAULT_FILE = System.getProperty("save.file", "savegame.dat");
+    static final int MAGIC = 0x53415633;   // "SAV3" (SAV2 had no factor shifts, SAV1 no holdings)
+    static final int FULL_EVERY = 120;     // two in-game hours of minute autosaves
+
+    private static final byte FULL = 1;
+    private static final byte DELTA = 2;
+
+    // section flags in a delta
+    private static final int MARKET = 1;
+    private static final int TASKS = 2;
+
+    private final Path file;
+    private GameState last;          // what the file currently decodes to
+    private int deltasSinceFull = 0;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+    private final CRC32C crc = new CRC32C();
+
+    public SaveGame() { this(Path.of(DEFAULT_FILE)); }
+    public SaveGame(Path file) { this.file = file; }
+
+    public boolean exists() { return Files.isRegularFile(file); }
+
+    /** Write the state, as a delta on top of the last save when possible. */
+    public void save(GameState s) throws IOException {
+        if (last == null || deltasSinceFull >= FULL_EVERY || !Arrays.equals(last.codes, s.codes) || !Files.exists(file)) {
+            writeFull(s);
+        } else {
+            appendDelta(s);
+        }
+        last = s;
+    }
+
+    /** Read the latest saved state, or null if there's no save file. */
+    public GameState load() throws IOException {
+        if (!exists()) return null;
+        GameState s = null;
+        int deltas = 0;
+        long good = 4;   // end of the last intact frame, after the magic
+        long fileSize = Files.size(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a save file: " + file);
+            while (true) {
+                int kind = in.read();
+                if (kind < 0) break;
+                byte[] payload;
+                try {
+                    int len = in.readInt();
+                    // garbage length: torn the same way as a bad CRC
+                    if (len < 0 || len > fileSize - good - 1 - 4 - 4) break;
+                    payload = in.readNBytes(len);
+                    int sum = in.readInt();
+                    if (payload.length != len || sum != crc(payload)) break;   // torn write
+                    good += 1 + 4 + (long) len + 4;
+                } catch (EOFException e) {
+                    break;
+                }
+                DataInputStream p = new DataInputStream(new ByteArrayInputStream(payload));
+                if (kind == FULL) {
+                    s = new GameState();
+                    readFull(p, s);
+                    deltas = 0;
+                } else if (kind == DELTA && s != null) {
+                    readDelta(p, s);
+                    deltas++;
+                }
+            }
+        }
+        if (fileSize > good) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(good);
+            }
+        }
+        last = s;
+        deltasSinceFull = deltas;
+        return s;
+    }
+
+    // full snapshot, written beside the old file then swapped in
+    private void writeFull(GameState s) throws IOException {
+        bytes.reset();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        int start = bytes.size();
+        out.writeByte(FULL);
+        out.writeInt(0);   // length, patched below
+        writeHub(out, s);
+        writeMarketRows(out, s, null);
+        writeEngine(out, s);
+        writeTasks(out, s);
+        byte[] frame = finish(start);
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, frame);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deltasSinceFull = 0;
+    }
+
+    private void appendDelta(GameState s) throws IOException {
+        bytes.reset();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DELTA);
+        out.writeInt(0);
+        boolean tasksChanged = !sameTasks(last, s);
+        boolean marketChanged = !sameMarket(last, s);
+        out.writeByte((marketChanged ? MARKET : 0) | (tasksChanged ? TASKS : 0));
+        writeHub(out, s);
+        writeEngine(out, s);
+        if (marketChanged) writeMarketRows(out, s, last);
+        if (tasksChanged) writeTasks(out, s);
+        byte[] frame = finish(0);
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(frame));
+        }
+        deltasSinceFull++;
+    }
+
+    // patch the length and add the CRC for the frame starting at frameStart
+    private byte[] finish(int frameStart) throws IOException {
+        byte[] buf = bytes.toByteArray();
+        int payloadStart = frameStart + 5;
+        int len = buf.length - payloadStart;
+        ByteBuffer.wrap(buf, frameStart + 1, 4).putInt(len);
+        crc.reset();
+        crc.update(buf, payloadStart, len);
+        int sum = (int) crc.getValue();
+        byte[] out = Arrays.copyOf(buf, buf.length + 4);
+        ByteBuffer.wrap(out, buf.length, 4).putInt(sum);
+        return out;
+    }
+
+    private int crc(byte[] payload) {
+        crc.reset();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    // sections
+
+    private static void writeHub(DataOutputStream out, GameState s) throws IOException {
+        out.writeDouble(s.cash);
+        out.writeInt(s.reputation);
+        out.writeInt(s.dailyRepDelta);
+        out.writeShort(s.minuteOfDay);
+        int flags = (s.briefingShownToday ? 1 : 0) | (s.npc2VisitShownToday ? 2 : 0)
+                | (s.socialiteShownToday ? 4 : 0) | (s.gambledToday ? 8 : 0)
+                | (s.gambledSinceLastAudit ? 16 : 0) | (s.auditScheduledToday ? 32 : 0);
+        out.writeByte(flags);
+        out.writeShort(s.auditMinute);
+        out.writeInt(s.daysUntilNextAudit);
+    }
+
+    private static void readHub(DataInputStream in, GameState s) throws IOException {
+        s.cash = in.readDouble();
+        s.reputation = in.readInt();
+        s.dailyRepDelta = in.readInt();
+        s.minuteOfDay = in.readShort();
+        int flags = in.readByte();
+        s.briefingShownToday = (flags & 1) != 0;
+        s.npc2VisitShownToday = (flags & 2) != 0;
+        s.socialiteShownToday = (flags & 4) != 0;
+        s.gambledToday = (flags & 8) != 0;
+        s.gambledSinceLastAudit = (flags & 16) != 0;
+        s.auditScheduledToday = (flags & 32) != 0;
+        s.auditMinute = in.readShort();
+        s.daysUntilNextAudit = in.readInt();
+    }
+
+    // every row when prev is null (full snapshot, with codes), otherwise only the rows that moved
+    private static void writeMarketRows(DataOutputStream out, GameState s, GameState prev) throws IOException {
+        int n = s.codes.length;
+        if (prev == null) {
+            out.writeInt(n);
+            for (int i = 0; i < n; i++) {
+                out.writeUTF(s.codes[i]);
+                out.writeDouble(s.price[i]);
+                out.writeDouble(s.lastPrice[i]);
+                out.writeDouble(s.shiftPct[i]);
+                out.writeLong(s.shares[i]);
+                out.writeDouble(s.avgCost[i]);
+            }
+            return;
+        }
+        int changed = 0;
+        for (int i = 0; i < n; i++) if (rowChanged(prev, s, i)) changed++;
+        out.writeInt(changed);
+        for (int i = 0; i < n; i++) {
+            if (!rowChanged(prev, s, i)) continue;
+            out.writeInt(i);
+            out.writeDouble(s.price[i]);
+            out.writeDouble(s.lastPrice[i]);
+            out.writeDouble(s.shiftPct[i]);
+            out.writeLong(s.shares[i]);
+            out.writeDouble(s.avgCost[i]);
+        }
+    }
+
+    private static void readMarketFull(DataInputStream in, GameState s) throws IOException {
+        int n = in.readInt();
+        s.codes = new String[n];
+        s.price = new double[n];
+        s.lastPrice = new double[n];
+        s.shiftPct = new double[n];
+        s.shares = new long[n];
+        s.avgCost = new double[n];
+        for (int i = 0; i < n; i++) {
+            s.codes[i] = in.readUTF();
+            s.price[i] = in.readDouble();
+            s.lastPrice[i] = in.readDouble();
+            s.shiftPct[i] = in.readDouble();
+            s.shares[i] = in.readLong();
+            s.avgCost[i] = in.readDouble();
+        }
+    }
+
+    private static void readMarketDelta(DataInputStream in, GameState s) throws IOException {
+        int changed = in.readInt();
+        for (int k = 0; k < changed; k++) {
+            int i = in.readInt();
+            s.price[i] = in.readDouble();
+            s.lastPrice[i] = in.readDouble();
+            s.shiftPct[i] = in.readDouble();
+            s.shares[i] = in.readLong();
+            s.avgCost[i] = in.readDouble();
+        }
+    }
+
+    private static void writeEngine(DataOutputStream out, GameState s) throws IOException {
+        out.writeInt(s.eventsToday);
+        out.writeLong(s.msSinceLastTrigger);
+        // one unsigned byte on disk; a bigger model can't be saved in this format
+        if (s.factorShift.length > 255) throw new IOException("Too many factors to save: " + s.factorShift.length);
+        out.writeByte(s.factorShift.length);
+        for (double f : s.factorShift) out.writeDouble(f);
+        out.writeShort(s.active.size());
+        for (GameState.ActiveEventState a : s.active) {
+            EventDef d = a.def;
+            out.writeUTF(d.title);
+            out.writeUTF(d.description);
+            out.writeUTF(d.stockCode);
+            out.writeDouble(d.shiftPct);
+            out.writeInt(d.durationMs);
+            out.writeDouble(d.weight);
+            out.writeLong(a.remainingMs);
+        }
+    }
+
+    private static void readEngine(DataInputStream in, GameState s) throws IOException {
+        s.eventsToday = in.readInt();
+        s.msSinceLastTrigger = in.readLong();
+        s.factorShift = new double[in.readUnsignedByte()];
+        for (int f = 0; f < s.factorShift.length; f++) s.factorShift[f] = in.readDouble();
+        int n = in.readShort();
+        s.active.clear();
+        for (int i = 0; i < n; i++) {
+            EventDef d = new EventDef(in.readUTF(), in.readUTF(), in.readUTF(),
+                    in.readDouble(), in.readInt(), in.readDouble());
+            s.active.add(new GameState.ActiveEventState(d, in.readLong()));
+        }
+    }
+
+    private static void writeTasks(DataOutputStream out, GameState s) throws IOException {
+        out.writeShort(s.tasks.size());
+        for (GameState.TaskState t : s.tasks) {
+            out.writeUTF(t.text);
+            out.writeBoolean(t.done);
+        }
+        out.writeShort(s.taskKeys.size());
+        for (String k : s.taskKeys) out.writeUTF(k);
+    }
+
+    private static void readTasks(DataInputStream in, GameState s) throws IOException {
+        s.tasks.clear();
+        int n = in.readShort();
+        for (int i = 0; i < n; i++) s.tasks.add(new GameState.TaskState(in.readUTF(), in.readBoolean()));
+        s.taskKeys.clear();
+        int k = in.readShort();
+        for (int i = 0; i < k; i++) s.taskKeys.add(in.readUTF());
+    }
+
+    private static void readFull(DataInputStream in, GameState s) throws IOException {
+        readHub(in, s);
+        readMarketFull(in, s);
+        readEngine(in, s);
+        readTasks(in, s);
+    }
+
+    private static void readDelta(DataInputStream in, GameState s) throws IOException {
+        int sections = in.readByte();
+        readHub(in, s);
+        readEngine(in, s);
+        if ((sections & MARKET) != 0) readMarketDelta(in, s);
+        if ((sections & TASKS) != 0) readTasks(in, s);
+    }
+
+    // comparisons against the previous save
+
+    private static boolean rowChanged(GameState a, GameState b, int i) {
+        return a.price[i] != b.price[i] || a.lastPrice[i] != b.lastPrice[i] || a.shiftPct[i] != b.shiftPct[i]
+                || a.shares[i] != b.shares[i] || a.avgCost[i] != b.avgCost[i];
+    }
+
+    private static boolean sameMarket(GameState a, GameState b) {
+        return Arrays.equals(a.price, b.price) && Arrays.equals(a.lastPrice, b.lastPrice)
+                && Arrays.equals(a.shiftPct, b.shiftPct)
+                && Arrays.equals(a.shares, b.shares) && Arrays.equals(a.avgCost, b.avgCost);
+    }
+
+    private static boolean sameTasks(GameState a, GameState b) {
+        if (a.tasks.size() != b.tasks.size() || !a.taskKeys.equals(b.taskKeys)) return false;
+        for (int i = 0; i < a.tasks.size(); i++) {
+            GameState.TaskState x = a.tasks.get(i), y = b.tasks.get(i);
+            if (x.done != y.done || !x.text.equals(y.text)) return false;
+        }
+        return true;
+    }
+}
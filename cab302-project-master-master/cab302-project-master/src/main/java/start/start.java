@@ -13,9 +13,12 @@ import javafx.scene.layout.Pane;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.stage.Stage;
+import save.GameState;
+import save.SaveGame;
 import ui.SettingsMenu;
 import ui.hub;
 
+import java.io.IOException;
 import java.net.URL;
 import java.util.Objects;
 
@@ -52,9 +55,22 @@ public class start extends Application {
             try { new hub().start(primaryStage); } catch (Exception ex) { ex.printStackTrace(); }
         }));
 
-        root.getChildren().add(makeHotspot(470, 398, 280, 47, "LOAD GAME", () ->
-                System.out.println("Load Game clicked (TODO)")
-        ));
+        root.getChildren().add(makeHotspot(470, 398, 280, 47, "LOAD GAME", () -> {
+            GameState saved;
+            try {
+                saved = new SaveGame().load();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                new Alert(Alert.AlertType.ERROR, "Could not read the saved game.").show();
+                return;
+            }
+            if (saved == null) {
+                new Alert(Alert.AlertType.INFORMATION, "No saved game yet.").show();
+                return;
+            }
+            if (startMusic != null) startMusic.stop();
+            try { new hub(saved).start(primaryStage); } catch (Exception ex) { ex.printStackTrace(); }
+        }));
 
 
         root.getChildren().add(makeHotspot(557, 450, 124, 45, "EXIT", () -> {
@@ -44,14 +44,14 @@ public class Main {
             stocksPanel.refresh();
         }).start();
 
-        // Event engine startup
+        // Event engine startup; it runs on its own thread, so UI callbacks hop back to Swing's
         var eventEngine = new EventEngine(
                 market,
                 EventLibrary.create(),
-                rng,
-                eventsPanel::log,
-                msg -> showToast(frame, msg),
-                stocksPanel::refresh
+                new Random(),
+                s -> SwingUtilities.invokeLater(() -> eventsPanel.log(s)),
+                msg -> SwingUtilities.invokeLater(() -> showToast(frame, msg)),
+                () -> SwingUtilities.invokeLater(stocksPanel::refresh)
         );
         eventEngine.start();
     }
@@ -0,0 +1,132 @@
+package ui;
+
+import core.OrderBook;
+import core.Portfolio;
+import core.PriceBook;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+import java.text.DecimalFormat;
+import java.util.function.Consumer;
+
+// PORTFOLIO screen: cash, holdings and open orders, plus a small order ticket
+final class PortfolioView {
+    private static final DecimalFormat MONEY = new DecimalFormat("$#,##0.00");
+
+    /**
+     * Show the portfolio dialog.
+     * @param owner the parent stage
+     * @param orders the player's order book (its portfolio is what's shown)
+     * @param book prices the holdings are valued at
+     * @param onChange called after anything that moves cash, e.g. the hub's refreshStatus()
+     */
+    static void show(Stage owner, OrderBook orders, PriceBook book, Runnable onChange) {
+        Portfolio pf = orders.portfolio();
+
+        Stage dialog = new Stage();
+        dialog.initOwner(owner);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("Portfolio");
+
+        Label summary = new Label();
+        ListView<String> holdings = new ListView<>();
+        holdings.setPrefHeight(120);
+        ListView<OrderBook.Order> openOrders = new ListView<>();
+        openOrders.setPrefHeight(100);
+
+        Label status = new Label();
+
+        Runnable refresh = () -> {
+            summary.setText("Cash: " + MONEY.format(pf.cash())
+                    + "   Available: " + MONEY.format(pf.availableCash())
+                    + "   Net worth: " + MONEY.format(pf.netWorth(book)));
+            holdings.getItems().clear();
+            for (int id = 0; id < book.size(); id++) {
+                long q = pf.position(id);
+                if (q == 0) continue;
+                holdings.getItems().add(book.code(id) + "  x" + q
+                        + "  @ " + MONEY.format(pf.avgCost(id))
+                        + "  now " + MONEY.format(book.price(id)));
+            }
+            openOrders.getItems().setAll(orders.openOrders());
+        };
+        openOrders.setCellFactory(lv -> new javafx.scene.control.ListCell<>() {
+            @Override
+            protected void updateItem(OrderBook.Order o, boolean empty) {
+                super.updateItem(o, empty);
+                setText(empty || o == null ? null
+                        : o.side + " " + o.code + " x" + o.qty + " limit " + MONEY.format(o.limit));
+            }
+        });
+
+        // --- order ticket ---
+        ChoiceBox<String> code = new ChoiceBox<>();
+        for (int id = 0; id < book.size(); id++) code.getItems().add(book.code(id));
+        if (!code.getItems().isEmpty()) code.setValue(code.getItems().get(0));
+        TextField qty = new TextField("1");
+        qty.setPrefColumnCount(5);
+        TextField limit = new TextField();
+        limit.setPromptText("limit (blank = market)");
+
+        Consumer<OrderBook.Side> place = side -> {
+            try {
+                long n = Long.parseLong(qty.getText().trim());
+                String lim = limit.getText().trim();
+                OrderBook.Order o = lim.isEmpty()
+                        ? orders.marketOrder(code.getValue(), side, n)
+                        : orders.limitOrder(code.getValue(), side, n, Double.parseDouble(lim));
+                status.setText(switch (o.status()) {
+                    case FILLED -> "Filled at " + MONEY.format(o.fillPrice());
+                    case OPEN -> "Order placed";
+                    default -> side == OrderBook.Side.BUY ? "Not enough cash" : "Not enough shares";
+                });
+            } catch (IllegalArgumentException ex) {   // includes NumberFormatException
+                status.setText("Check the quantity and limit");
+            }
+            refresh.run();
+            if (onChange != null) onChange.run();
+        };
+
+        Button buy = new Button("Buy");
+        buy.setOnAction(e -> place.accept(OrderBook.Side.BUY));
+        Button sell = new Button("Sell");
+        sell.setOnAction(e -> place.accept(OrderBook.Side.SELL));
+        Button cancel = new Button("Cancel order");
+        cancel.setOnAction(e -> {
+            OrderBook.Order o = openOrders.getSelectionModel().getSelectedItem();
+            if (o != null && orders.cancel(o.id)) status.setText("Order cancelled");
+            refresh.run();
+            if (onChange != null) onChange.run();
+        });
+        Button close = new Button("Close");
+        close.setOnAction(e -> dialog.close());
+
+        // fills happen on market ticks while the dialog is open
+        Consumer<OrderBook.Order> onFill = o -> refresh.run();
+        orders.addFillListener(onFill);
+        dialog.setOnHidden(e -> orders.removeFillListener(onFill));
+
+        HBox ticket = new HBox(8, code, qty, limit, buy, sell);
+        VBox root = new VBox(10,
+                summary,
+                new Label("Holdings"), holdings,
+                new Label("Open orders"), openOrders,
+                ticket,
+                new HBox(10, cancel, close, status)
+        );
+        root.setPadding(new Insets(14));
+
+        refresh.run();
+        dialog.setScene(new Scene(root, 520, 420));
+        dialog.show();
+    }
+}
@@ -3,12 +3,16 @@ package ui;
 import app.demo.HubGateway;
 import app.demo.Settings;
 import app.demo.TaskManager;
+import core.OrderBook;
+import core.Portfolio;
+import core.RandomTaskGenerator;
 import ui.TaskPanelView;
 import events.MarketEventsManager;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Cursor;
@@ -30,8 +34,11 @@ import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 
 import npc.Npc;
+import save.GameState;
+import save.SaveGame;
 import start.start;
 
+import java.io.IOException;
 import java.net.URL;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
@@ -53,6 +60,7 @@ public class hub extends Application {
     private TaskManager taskManager;
 
     private MarketEventsManager events;
+    private final RandomTaskGenerator taskGenerator = new RandomTaskGenerator();
 
     // End-of-day overlay
     private Pane eodLayer;
@@ -92,8 +100,10 @@ public class hub extends Application {
         }
     }
 
-    // Simple player state
-    private int cash = 200;
+    // Simple player state; cash lives in the portfolio
+    private final Portfolio portfolio = new Portfolio(200);
+    private OrderBook orders;
+    private final Random marketRng = new Random();
     private int reputation = 0;
     private int dailyRepDelta = 0;
 
@@ -105,6 +115,13 @@ public class hub extends Application {
     // NPC controller
     private Npc.Controller npc;
 
+    // Save/load: autosaves every in-game minute; resume is set when coming from LOAD GAME
+    private final SaveGame saveGame = new SaveGame();
+    private final GameState resume;
+
+    public hub() { this(null); }
+    public hub(GameState resume) { this.resume = resume; }
+
     @Override
     public void start(Stage primaryStage) {
         Pane root = new Pane();
@@ -127,10 +144,14 @@ public class hub extends Application {
         taskManager = new TaskManager();
 
         events = new MarketEventsManager();
-        events.subscribe(taskManager::onEvent);
+        events.subscribe(taskManager::onEvent, Platform::runLater);   // TaskManager touches the UI
         HubGateway.register(events.publisher());
         events.start();
 
+        // player's orders are matched on every market tick
+        orders = new OrderBook(events.market(), portfolio);
+        orders.addFillListener(o -> refreshStatus());
+
         // Tasks panel (left tablet)
         taskPanelView = new TaskPanelView(taskManager, DEBUG);
         root.getChildren().add(taskPanelView.getRoot());
@@ -157,9 +178,9 @@ public class hub extends Application {
         hubButtons.getChildren().add(makeHotspot(578, 588, 128, 34, "STOCKS",
                 () -> toggleTo(STOCKS_IMG)));
         hubButtons.getChildren().add(makeHotspot(578, 622, 174, 34, "PORTFOLIO", () -> {
-            System.out.println("Portfolio clicked");
             taskPanelView.close();
             hubButtons.toFront();
+            PortfolioView.show(primaryStage, orders, events.market().book(), this::refreshStatus);
         }));
         hubButtons.getChildren().add(makeHotspot(670, 223, 135, 48, "EXIT", () -> {
             if (hubAmbient != null) {
@@ -201,6 +222,7 @@ public class hub extends Application {
         npc = new Npc.Controller();
         npc.initUI(root, hubButtons);
         npc.initRegistryAndDialogue();
+        if (resume != null) restore(resume);
 
         hubButtons.setVisible(true);
 
@@ -252,8 +274,8 @@ public class hub extends Application {
 
             if (onHub && !npc.npc2VisitShownToday && simTime.equals(LocalTime.of(11, 30))) {
                 npc.energyGamble(
-                        (IntSupplier) () -> cash,
-                        (IntConsumer) v -> { cash = v; refreshStatus(); },
+                        (IntSupplier) this::cashDollars,
+                        (IntConsumer) v -> { setCashDollars(v); refreshStatus(); },
                         (IntConsumer) this::changeReputation,
                         this::refreshStatus
                 );
@@ -262,8 +284,8 @@ public class hub extends Application {
             if (onHub && !npc.socialiteShownToday && simTime.equals(SOCIALITE_TIME) && !npc.isDialogueVisible()) {
                 npc.socialInvite(
                         reputation,
-                        (IntSupplier) () -> cash,
-                        (IntConsumer) v -> { cash = v; refreshStatus(); },
+                        (IntSupplier) this::cashDollars,
+                        (IntConsumer) v -> { setCashDollars(v); refreshStatus(); },
                         (IntConsumer) this::changeReputation,
                         this::refreshStatus
                 );
@@ -278,6 +300,9 @@ public class hub extends Application {
 
             simTime = simTime.plusMinutes(1);
             clockLabel.setText(CLOCK_FMT.format(simTime));
+            events.market().tickAll(marketRng);   // one market tick per in-game minute
+            refreshStatus();
+            autosave();
 
             if (!simTime.isBefore(END_TIME)) {
                 workdayTimer.stop();
@@ -375,6 +400,8 @@ public class hub extends Application {
 
         taskManager.resetForNewDay();
         events.nextDay();
+        // today's plan from yesterday's moves: dips, runs and correlated pairs
+        taskManager.getTasks().addAll(taskGenerator.generate(events.market(), events.engine(), events.analytics()));
 
         if (!npc.briefingShownToday && simTime.equals(LocalTime.of(9, 0))) {
             Timeline t = new Timeline(new KeyFrame(Duration.millis(500),
@@ -384,6 +411,40 @@ public class hub extends Application {
         }
     }
 
+    private GameState capture() {
+        GameState s = new GameState();
+        s.cash = portfolio.cash();
+        s.reputation = reputation;
+        s.dailyRepDelta = dailyRepDelta;
+        s.minuteOfDay = simTime.toSecondOfDay() / 60;
+        s.captureNpc(npc);
+        s.captureMarketAndEngine(events.market(), portfolio, events.engine(), System.currentTimeMillis());
+        s.captureTasks(taskManager);
+        return s;
+    }
+
+    private void restore(GameState s) {
+        portfolio.deposit(s.cash - portfolio.cash());
+        reputation = s.reputation;
+        dailyRepDelta = s.dailyRepDelta;
+        simTime = LocalTime.ofSecondOfDay(s.minuteOfDay * 60L);
+        clockLabel.setText(CLOCK_FMT.format(simTime));
+        s.applyNpc(npc);
+        s.applyMarket(events.market());
+        s.applyPositions(portfolio, events.market());
+        s.applyEngine(events.engine());
+        s.applyTasks(taskManager);
+        refreshStatus();
+    }
+
+    private void autosave() {
+        try {
+            saveGame.save(capture());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
     private void goTo(Stage stage, String resourcePath, boolean showTasks) {
         setBackground(stage, resourcePath);
 
@@ -439,9 +500,15 @@ public class hub extends Application {
 
     private void refreshStatus() {
         if (repLbl != null) repLbl.setText("Reputation: " + reputation);
-        if (cashUnderLbl != null) cashUnderLbl.setText("Portfolio: $" + cash);
+        if (cashUnderLbl != null) {
+            cashUnderLbl.setText("Portfolio: $" + Math.round(portfolio.netWorth(events.market().book())));
+        }
     }
 
+    // NPC gambles work in whole dollars; keep any cents the portfolio has
+    private int cashDollars() { return (int) Math.floor(portfolio.cash()); }
+    private void setCashDollars(int v) { portfolio.deposit(v - cashDollars()); }
+
     private void setBackground(Stage stage, String resourcePath) {
         try {
             URL url = Objects.requireNonNull(getClass().getResource(resourcePath),